@@ -0,0 +1,71 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.benchmarks;
+
+import org.calrissian.restdoclet.collector.AbstractCollector;
+import org.calrissian.restdoclet.collector.CollectorEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Endpoint collection through each collector, from the included elements to the class descriptors.  The doc
+ * comments and the types are resolved again on each invocation, as in a doclet run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CollectorBenchmark {
+
+    @Param({"1", "4"})
+    public int threads;
+
+    @Benchmark
+    public void spring(CorpusState corpus, Blackhole blackhole) throws IOException {
+        collect(corpus.newCollectors().get(0), corpus, blackhole);
+    }
+
+    @Benchmark
+    public void jaxrs(CorpusState corpus, Blackhole blackhole) throws IOException {
+        collect(corpus.newCollectors().get(1), corpus, blackhole);
+    }
+
+    @Benchmark
+    public void all(CorpusState corpus, Blackhole blackhole) throws IOException {
+        new CollectorEngine(corpus.newCollectors(), threads).collect(corpus.getEnvironment(), blackhole::consume);
+    }
+
+    private void collect(AbstractCollector collector, CorpusState corpus, Blackhole blackhole) throws IOException {
+        List<AbstractCollector> collectors = Collections.singletonList(collector);
+        new CollectorEngine(collectors, threads).collect(corpus.getEnvironment(), blackhole::consume);
+    }
+}
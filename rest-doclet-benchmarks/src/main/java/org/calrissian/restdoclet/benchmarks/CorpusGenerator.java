@@ -0,0 +1,420 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.benchmarks;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Writes the sources of a generated Spring and JAX-RS api under the {@link #ROOT_PACKAGE} package, to run the
+ * doclet at a chosen scale.
+ * <p>
+ * Each controller alternates GET methods, with a path variable, and POST methods, with a request body, all with
+ * the configured number of query parameters.  Each controller extends a chain of base classes, each declaring
+ * one more endpoint; the base classes carry the ignore tag, so they are only documented through the
+ * controllers.  The methods return and accept the root models of a graph of models, {@link #MODEL_WIDTH}
+ * models per level, each level referring to the next one and the last level referring back to the root models.
+ * <p>
+ * JAX-RS maps a single path per class and per method, so the path fan-out only applies to the Spring controllers.
+ * <p>
+ * Usage: java org.calrissian.restdoclet.benchmarks.CorpusGenerator -dir &lt;directory&gt; [-endpoints n]
+ * [-controllers n] [-methods n] [-inheritance n] [-classPaths n] [-methodPaths n] [-parameters n]
+ * [-commentLines n] [-modelDepth n] [-frameworks spring,jaxrs]
+ */
+public class CorpusGenerator {
+
+    public static final String ROOT_PACKAGE = "corpus";
+    public static final int MODEL_WIDTH = 4;
+
+    public enum Framework {
+        SPRING,
+        JAXRS
+    }
+
+    private Set<Framework> frameworks = EnumSet.allOf(Framework.class);
+    private int controllers = 10;
+    private int methods = 10;
+    private int inheritance = 0;
+    private int classPaths = 1;
+    private int methodPaths = 1;
+    private int parameters = 1;
+    private int commentLines = 2;
+    private int modelDepth = 2;
+
+    public CorpusGenerator() {
+    }
+
+    /**
+     * @param controllers the number of controllers of each framework.
+     * @param methods the number of methods of each controller.
+     */
+    public CorpusGenerator(int controllers, int methods) {
+        this.controllers = controllers;
+        this.methods = methods;
+    }
+
+    public CorpusGenerator frameworks(Set<Framework> frameworks) {
+        this.frameworks = EnumSet.copyOf(frameworks);
+        return this;
+    }
+
+    /**
+     * @param controllers the number of controllers of each framework.
+     */
+    public CorpusGenerator controllers(int controllers) {
+        this.controllers = Math.max(0, controllers);
+        return this;
+    }
+
+    /**
+     * @param methods the number of methods declared by each controller.
+     */
+    public CorpusGenerator methods(int methods) {
+        this.methods = Math.max(0, methods);
+        return this;
+    }
+
+    /**
+     * @param inheritance the number of base classes above each controller.
+     */
+    public CorpusGenerator inheritance(int inheritance) {
+        this.inheritance = Math.max(0, inheritance);
+        return this;
+    }
+
+    /**
+     * @param classPaths the number of paths mapped on each Spring controller.
+     */
+    public CorpusGenerator classPaths(int classPaths) {
+        this.classPaths = Math.max(1, classPaths);
+        return this;
+    }
+
+    /**
+     * @param methodPaths the number of paths mapped on each Spring method.
+     */
+    public CorpusGenerator methodPaths(int methodPaths) {
+        this.methodPaths = Math.max(1, methodPaths);
+        return this;
+    }
+
+    /**
+     * @param parameters the number of query parameters of each method.
+     */
+    public CorpusGenerator parameters(int parameters) {
+        this.parameters = Math.max(0, parameters);
+        return this;
+    }
+
+    /**
+     * @param commentLines the number of description lines in the doc comment of each method.
+     */
+    public CorpusGenerator commentLines(int commentLines) {
+        this.commentLines = Math.max(0, commentLines);
+        return this;
+    }
+
+    /**
+     * @param modelDepth the number of levels of the model graph.
+     */
+    public CorpusGenerator modelDepth(int modelDepth) {
+        this.modelDepth = Math.max(1, modelDepth);
+        return this;
+    }
+
+    /**
+     * Sets the number of controllers so the corpus documents about the given number of endpoints, with the
+     * other settings.  Call it once the other settings are set.
+     * @param endpoints
+     */
+    public CorpusGenerator endpoints(int endpoints) {
+        int perController = getEndpoints(1);
+        this.controllers = (perController == 0 ? 0 : Math.max(1, Math.round((float) endpoints / perController)));
+        return this;
+    }
+
+    /**
+     * @return the number of endpoints documented by the corpus.
+     */
+    public int getEndpoints() {
+        return getEndpoints(controllers);
+    }
+
+    private int getEndpoints(int controllers) {
+        int endpoints = 0;
+        for (Framework framework : frameworks) {
+            endpoints += controllers * (methods + inheritance) * getFanOut(framework);
+        }
+        return endpoints;
+    }
+
+    private int getFanOut(Framework framework) {
+        return framework == Framework.SPRING ? classPaths * methodPaths : 1;
+    }
+
+    public void write(Path root) throws IOException {
+        for (int level = 0; level < modelDepth; level++) {
+            for (int i = 0; i < MODEL_WIDTH; i++) {
+                writeModel(root, level, i);
+            }
+        }
+        for (Framework framework : frameworks) {
+            for (int depth = 1; depth <= inheritance; depth++) {
+                writeBase(root, framework, depth);
+            }
+            for (int i = 0; i < controllers; i++) {
+                writeController(root, framework, i);
+            }
+        }
+    }
+
+    private void writeModel(Path root, int level, int index) throws IOException {
+        String name = modelName(level, index);
+        try (BufferedWriter out = open(root, "model", name)) {
+            out.write("package " + ROOT_PACKAGE + ".model;\n\n");
+            out.write("import java.util.List;\n\n");
+            out.write("/**\n * Model " + index + " of level " + level + ".\n */\n");
+            out.write("public class " + name + " {\n");
+            out.write("    public long id;\n");
+            out.write("    public String name;\n");
+            if (level + 1 < modelDepth) {
+                out.write("    public List<" + modelName(level + 1, index) + "> children;\n");
+                out.write("    public " + modelName(level + 1, (index + 1) % MODEL_WIDTH) + " related;\n");
+            } else {
+                out.write("    public " + modelName(0, index) + " root;\n");
+            }
+            out.write("}\n");
+        }
+    }
+
+    private void writeBase(Path root, Framework framework, int depth) throws IOException {
+        String name = prefix(framework) + "Base" + depth;
+        String superClass = (depth < inheritance ? prefix(framework) + "Base" + (depth + 1) : null);
+        try (BufferedWriter out = open(root, packageName(framework), name)) {
+            writeImports(out, framework);
+            out.write("/**\n * Base class " + depth + " of the controllers.\n *\n * @ignore documented through the controllers.\n */\n");
+            out.write("public abstract class " + name + (superClass == null ? "" : " extends " + superClass) + " {\n\n");
+            writeMethod(out, framework, "inherited" + depth, depth % MODEL_WIDTH, 0);
+            out.write("}\n");
+        }
+    }
+
+    private void writeController(Path root, Framework framework, int index) throws IOException {
+        String name = prefix(framework) + "Controller" + index;
+        String resource = "/" + packageName(framework) + "/resource" + index;
+        try (BufferedWriter out = open(root, packageName(framework), name)) {
+            writeImports(out, framework);
+            out.write("/**\n");
+            out.write(" * Resource " + index + " of the generated api.\n");
+            out.write(" *\n");
+            out.write(" * @name Resource " + index + "\n");
+            out.write(" * @contextPath /api\n");
+            out.write(" */\n");
+            if (framework == Framework.SPRING) {
+                out.write("@Controller\n");
+                out.write("@RequestMapping(" + paths(resource, "", classPaths) + ")\n");
+            } else {
+                out.write("@Path(\"" + resource + "\")\n");
+            }
+            out.write("public class " + name + (inheritance > 0 ? " extends " + prefix(framework) + "Base1" : "") + " {\n\n");
+            for (int j = 0; j < methods; j++) {
+                writeMethod(out, framework, "method" + j, (index + j) % MODEL_WIDTH, j);
+            }
+            out.write("}\n");
+        }
+    }
+
+    private void writeMethod(BufferedWriter out, Framework framework, String name, int model, int index) throws IOException {
+        String type = modelName(0, model);
+        boolean get = (index % 2 == 0);
+        String path = "/" + name.toLowerCase(Locale.ROOT) + (get ? "/{id}" : "");
+
+        writeMethodComment(out, get);
+        StringBuilder signature = new StringBuilder("    public " + type + " " + name + "(");
+        if (framework == Framework.SPRING) {
+            out.write("    @RequestMapping(value = " + paths(path, get ? "/{id}" : "", methodPaths)
+                    + ", method = RequestMethod." + (get ? "GET" : "POST") + ")\n");
+            out.write("    @ResponseBody\n");
+            signature.append(get ? "@PathVariable(\"id\") long id" : "@RequestBody " + type + " body");
+            for (int p = 0; p < parameters; p++) {
+                signature.append(", @RequestParam(value = \"param").append(p).append("\", required = false) String param").append(p);
+            }
+        } else {
+            out.write(get ? "    @GET\n" : "    @POST\n");
+            out.write("    @Path(\"" + path + "\")\n");
+            signature.append(get ? "@PathParam(\"id\") long id" : type + " body");
+            for (int p = 0; p < parameters; p++) {
+                signature.append(", @QueryParam(\"param").append(p).append("\") String param").append(p);
+            }
+        }
+        out.write(signature.append(") {\n").toString());
+        out.write("        return null;\n    }\n\n");
+    }
+
+    private void writeMethodComment(BufferedWriter out, boolean get) throws IOException {
+        out.write("    /**\n");
+        out.write("     * Operation of the resource, with a first sentence followed by a longer description.\n");
+        for (int line = 0; line < commentLines; line++) {
+            out.write("     * Line " + line + " of the description, with <b>markup</b> and {@code inline} tags.\n");
+        }
+        out.write("     *\n");
+        if (get) {
+            out.write("     * @param id the identifier.\n");
+            out.write("     * @pathVar id the identifier of the item.\n");
+        } else {
+            out.write("     * @param body the item to store.\n");
+            out.write("     * @requestBody body the item to store.\n");
+        }
+        for (int p = 0; p < parameters; p++) {
+            out.write("     * @param param" + p + " an optional parameter.\n");
+            out.write("     * @queryParam param" + p + " an optional parameter.\n");
+        }
+        out.write("     * @return the item.\n");
+        out.write("     */\n");
+    }
+
+    private static void writeImports(BufferedWriter out, Framework framework) throws IOException {
+        out.write("package " + ROOT_PACKAGE + "." + packageName(framework) + ";\n\n");
+        out.write("import " + ROOT_PACKAGE + ".model.*;\n");
+        if (framework == Framework.SPRING) {
+            out.write("import org.springframework.stereotype.Controller;\n");
+            out.write("import org.springframework.web.bind.annotation.*;\n\n");
+        } else {
+            out.write("import javax.ws.rs.*;\n\n");
+        }
+    }
+
+    /**
+     * @return the annotation value mapping the path and its variants, {"/path", "/path/alt1", ...}.
+     */
+    private static String paths(String path, String suffix, int count) {
+        String base = path.substring(0, path.length() - suffix.length());
+        StringBuilder paths = new StringBuilder("{\"").append(path).append('"');
+        for (int i = 1; i < count; i++) {
+            paths.append(", \"").append(base).append("/alt").append(i).append(suffix).append('"');
+        }
+        return paths.append('}').toString();
+    }
+
+    private static String modelName(int level, int index) {
+        return "Model" + level + "_" + index;
+    }
+
+    private static String packageName(Framework framework) {
+        return framework.name().toLowerCase(Locale.ROOT);
+    }
+
+    private static String prefix(Framework framework) {
+        return framework == Framework.SPRING ? "Spring" : "JaxRS";
+    }
+
+    private static BufferedWriter open(Path root, String packageName, String className) throws IOException {
+        Path directory = root.resolve(ROOT_PACKAGE).resolve(packageName);
+        Files.createDirectories(directory);
+        return Files.newBufferedWriter(directory.resolve(className + ".java"), StandardCharsets.UTF_8);
+    }
+
+    public static void main(String[] args) throws IOException {
+        CorpusGenerator generator = new CorpusGenerator();
+        Path directory = null;
+        Integer endpoints = null;
+        for (int i = 0; i < args.length; i += 2) {
+            if (i + 1 >= args.length) {
+                usage("Missing value: " + args[i]);
+            }
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "-dir":
+                    directory = Paths.get(value);
+                    break;
+                case "-endpoints":
+                    endpoints = parse(args[i], value);
+                    break;
+                case "-controllers":
+                    generator.controllers(parse(args[i], value));
+                    break;
+                case "-methods":
+                    generator.methods(parse(args[i], value));
+                    break;
+                case "-inheritance":
+                    generator.inheritance(parse(args[i], value));
+                    break;
+                case "-classPaths":
+                    generator.classPaths(parse(args[i], value));
+                    break;
+                case "-methodPaths":
+                    generator.methodPaths(parse(args[i], value));
+                    break;
+                case "-parameters":
+                    generator.parameters(parse(args[i], value));
+                    break;
+                case "-commentLines":
+                    generator.commentLines(parse(args[i], value));
+                    break;
+                case "-modelDepth":
+                    generator.modelDepth(parse(args[i], value));
+                    break;
+                case "-frameworks":
+                    Set<Framework> frameworks = EnumSet.noneOf(Framework.class);
+                    for (String framework : value.split(",")) {
+                        try {
+                            frameworks.add(Framework.valueOf(framework.trim().toUpperCase(Locale.ROOT)));
+                        } catch (IllegalArgumentException e) {
+                            usage("Unknown framework: " + framework);
+                        }
+                    }
+                    generator.frameworks(frameworks);
+                    break;
+                default:
+                    usage("Invalid option: " + args[i]);
+            }
+        }
+        if (directory == null) {
+            usage("Missing option: -dir");
+        }
+        //The number of controllers depends on the other settings.
+        if (endpoints != null) {
+            generator.endpoints(endpoints);
+        }
+
+        generator.write(directory);
+        System.out.println("Wrote " + generator.getEndpoints() + " endpoints to " + directory);
+    }
+
+    private static int parse(String option, String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            usage("Invalid number for " + option + ": " + value);
+            return 0;
+        }
+    }
+
+    private static void usage(String message) {
+        System.err.println(message);
+        System.err.println("Usage: java " + CorpusGenerator.class.getName() + " -dir <directory> [-endpoints n] [-controllers n]"
+                + " [-methods n] [-inheritance n] [-classPaths n] [-methodPaths n] [-parameters n] [-commentLines n]"
+                + " [-modelDepth n] [-frameworks spring,jaxrs]");
+        System.exit(1);
+    }
+}
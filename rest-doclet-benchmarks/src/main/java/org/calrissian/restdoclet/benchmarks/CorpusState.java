@@ -0,0 +1,94 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.benchmarks;
+
+import jdk.javadoc.doclet.DocletEnvironment;
+import org.calrissian.restdoclet.collector.AbstractCollector;
+import org.calrissian.restdoclet.collector.jaxrs.JaxRSCollector;
+import org.calrissian.restdoclet.collector.spring.SpringCollector;
+import org.calrissian.restdoclet.util.DocCommentCache;
+import org.calrissian.restdoclet.util.TypeResolver;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A generated api, read by javadoc once per trial.  The size of the api is its number of endpoints, the other
+ * settings of the {@link CorpusGenerator} keep their default values.
+ */
+@State(Scope.Benchmark)
+public class CorpusState {
+
+    @Param({"100", "10000"})
+    public int endpoints;
+
+    private DocletFixture fixture;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        fixture = DocletFixture.open(new CorpusGenerator().endpoints(endpoints));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        fixture.close();
+    }
+
+    public DocletEnvironment getEnvironment() {
+        return fixture.getEnvironment();
+    }
+
+    /**
+     * @return new collectors, sharing a new comment cache and type resolver as in a doclet run.
+     */
+    public List<AbstractCollector> newCollectors() {
+        DocletEnvironment environment = getEnvironment();
+        DocCommentCache docComments = new DocCommentCache(environment.getDocTrees());
+        TypeResolver types = new TypeResolver(environment.getTypeUtils());
+        return Arrays.asList(
+                new SpringCollector(environment.getDocTrees(), docComments, types),
+                new JaxRSCollector(environment.getDocTrees(), docComments, types));
+    }
+
+    /**
+     * @return the methods of the included classes.
+     */
+    public List<ExecutableElement> getMethods() {
+        List<ExecutableElement> methods = new ArrayList<>();
+        for (Element e : getEnvironment().getIncludedElements()) {
+            if (e instanceof TypeElement) {
+                for (Element member : e.getEnclosedElements()) {
+                    if (member.getKind() == ElementKind.METHOD) {
+                        methods.add((ExecutableElement) member);
+                    }
+                }
+            }
+        }
+        return methods;
+    }
+}
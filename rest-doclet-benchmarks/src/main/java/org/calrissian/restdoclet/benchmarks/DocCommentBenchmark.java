@@ -0,0 +1,93 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.benchmarks;
+
+import com.sun.source.util.DocTrees;
+import org.calrissian.restdoclet.util.DocCommentCache;
+import org.calrissian.restdoclet.util.TagUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.lang.model.element.ExecutableElement;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.calrissian.restdoclet.util.TagUtils.PATHVAR_TAG;
+
+/**
+ * Doc comment extraction for every method of the corpus, through {@link TagUtils}, which parses the comment on
+ * each call, and through a {@link DocCommentCache}, which parses it once for all the tags.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DocCommentBenchmark {
+
+    private DocTrees trees;
+    private List<ExecutableElement> methods;
+
+    @Setup(Level.Trial)
+    public void setUp(CorpusState corpus) {
+        trees = corpus.getEnvironment().getDocTrees();
+        methods = corpus.getMethods();
+    }
+
+    @Benchmark
+    public void fullBody(Blackhole blackhole) {
+        for (ExecutableElement method : methods) {
+            blackhole.consume(TagUtils.fullBody(method, trees));
+        }
+    }
+
+    @Benchmark
+    public void firstSentence(Blackhole blackhole) {
+        for (ExecutableElement method : methods) {
+            blackhole.consume(TagUtils.firstSentence(method, trees));
+        }
+    }
+
+    @Benchmark
+    public void tags(Blackhole blackhole) {
+        for (ExecutableElement method : methods) {
+            blackhole.consume(TagUtils.getTags(method, PATHVAR_TAG, trees));
+            blackhole.consume(TagUtils.getParams(method, trees));
+        }
+    }
+
+    @Benchmark
+    public void cached(Blackhole blackhole) {
+        DocCommentCache docComments = new DocCommentCache(trees);
+        for (ExecutableElement method : methods) {
+            blackhole.consume(docComments.get(method).getFullBody());
+            blackhole.consume(docComments.get(method).getFirstSentence());
+            blackhole.consume(docComments.get(method).getTags(PATHVAR_TAG));
+            blackhole.consume(docComments.get(method).getParams());
+        }
+    }
+}
@@ -0,0 +1,165 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.benchmarks;
+
+import jdk.javadoc.doclet.Doclet;
+import jdk.javadoc.doclet.DocletEnvironment;
+import jdk.javadoc.doclet.Reporter;
+
+import javax.lang.model.SourceVersion;
+import javax.tools.DocumentationTool;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Stream;
+
+/**
+ * Runs javadoc on a generated corpus and keeps its environment open, so the collectors can be measured without
+ * parsing the sources on each invocation.  The doclet blocks in {@link Doclet#run(DocletEnvironment)} until the
+ * fixture is closed.  One fixture is open at a time.
+ */
+public class DocletFixture implements AutoCloseable {
+
+    private static volatile DocletFixture current;
+
+    private final Path root;
+    private final CompletableFuture<DocletEnvironment> environment = new CompletableFuture<>();
+    private final CountDownLatch released = new CountDownLatch(1);
+    private final Thread javadoc;
+
+    private DocletFixture(Path root) {
+        this.root = root;
+        this.javadoc = new Thread(this::runJavadoc, "javadoc-fixture");
+        this.javadoc.setDaemon(true);
+    }
+
+    /**
+     * Writes the corpus in a temporary directory and waits for javadoc to read it.
+     * @param corpus
+     * @return the open fixture.
+     * @throws IOException if the corpus can not be written or javadoc fails.
+     */
+    public static synchronized DocletFixture open(CorpusGenerator corpus) throws IOException {
+        Path root = Files.createTempDirectory("restdoclet-corpus-");
+        corpus.write(root);
+
+        DocletFixture fixture = new DocletFixture(root);
+        current = fixture;
+        fixture.javadoc.start();
+        try {
+            fixture.environment.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while running javadoc", e);
+        } catch (ExecutionException e) {
+            fixture.close();
+            throw new IOException("Unable to run javadoc on " + root, e.getCause());
+        }
+        return fixture;
+    }
+
+    public DocletEnvironment getEnvironment() {
+        return environment.join();
+    }
+
+    private void runJavadoc() {
+        try {
+            DocumentationTool tool = ToolProvider.getSystemDocumentationTool();
+            DocumentationTool.DocumentationTask task = tool.getTask(null, null, null, FixtureDoclet.class,
+                    Arrays.asList(
+                            "-quiet",
+                            "-sourcepath", root.toString(),
+                            "-classpath", System.getProperty("java.class.path"),
+                            "-subpackages", CorpusGenerator.ROOT_PACKAGE),
+                    null);
+            task.call();
+        } catch (RuntimeException e) {
+            environment.completeExceptionally(e);
+        }
+        //Only completes when the doclet was not run.
+        environment.completeExceptionally(new IllegalStateException("javadoc did not run the doclet"));
+    }
+
+    @Override
+    public void close() throws IOException {
+        released.countDown();
+        try {
+            javadoc.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        delete(root);
+    }
+
+    /**
+     * Deletes a generated corpus.
+     */
+    static void delete(Path root) throws IOException {
+        try (Stream<Path> files = Files.walk(root)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    /**
+     * Hands the environment to the open fixture and waits for it to be closed.
+     */
+    public static class FixtureDoclet implements Doclet {
+
+        @Override
+        public void init(Locale locale, Reporter reporter) {
+            // do nothing
+        }
+
+        @Override
+        public String getName() {
+            return "FixtureDoclet";
+        }
+
+        @Override
+        public Set<? extends Option> getSupportedOptions() {
+            return Collections.emptySet();
+        }
+
+        @Override
+        public SourceVersion getSupportedSourceVersion() {
+            return SourceVersion.latest();
+        }
+
+        @Override
+        public boolean run(DocletEnvironment environment) {
+            DocletFixture fixture = current;
+            fixture.environment.complete(environment);
+            try {
+                fixture.released.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return true;
+        }
+    }
+}
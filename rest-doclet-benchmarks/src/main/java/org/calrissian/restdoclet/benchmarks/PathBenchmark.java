@@ -0,0 +1,124 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.benchmarks;
+
+import org.calrissian.restdoclet.model.RouteTrie;
+import org.calrissian.restdoclet.routes.RouteTable;
+import org.calrissian.restdoclet.util.CommonUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Path normalization through {@link CommonUtils#fixPath}, and the insertion and lookup of the routes in the
+ * {@link RouteTrie} of the writers and in the runtime {@link RouteTable}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PathBenchmark {
+
+    @Param({"1000", "100000"})
+    public int routes;
+
+    private String[] templates;
+    private String[] dirtyPaths;
+    private String[][] pathParts;
+    private String[] requests;
+    private RouteTrie<Integer> trie;
+    private RouteTable table;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        templates = new String[routes];
+        dirtyPaths = new String[routes];
+        pathParts = new String[routes][];
+        requests = new String[routes];
+        trie = new RouteTrie<>();
+        StringBuilder routeTable = new StringBuilder();
+        for (int i = 0; i < routes; i++) {
+            String resource = "/resource" + (i % 100);
+            templates[i] = "/api" + resource + "/items" + i + "/{id}";
+            dirtyPaths[i] = "api/" + resource + "//items" + i + "/{id}/";
+            pathParts[i] = new String[] {"/api/", resource + "/", "/items" + i + "/{id}"};
+            requests[i] = "/api" + resource + "/items" + i + "/" + i + "?expand=true";
+            trie.add(templates[i], i);
+            routeTable.append("GET ").append(templates[i]).append('\n');
+        }
+        table = RouteTable.read(new StringReader(routeTable.toString()));
+    }
+
+    @Benchmark
+    public void fixCanonicalPaths(Blackhole blackhole) {
+        for (String path : templates) {
+            blackhole.consume(CommonUtils.fixPath(path));
+        }
+    }
+
+    @Benchmark
+    public void fixDirtyPaths(Blackhole blackhole) {
+        for (String path : dirtyPaths) {
+            blackhole.consume(CommonUtils.fixPath(path));
+        }
+    }
+
+    @Benchmark
+    public void fixPathParts(Blackhole blackhole) {
+        for (String[] parts : pathParts) {
+            blackhole.consume(CommonUtils.fixPath(parts));
+        }
+    }
+
+    @Benchmark
+    public RouteTrie<Integer> trieInsert() {
+        RouteTrie<Integer> trie = new RouteTrie<>();
+        for (int i = 0; i < templates.length; i++) {
+            trie.add(templates[i], i);
+        }
+        return trie;
+    }
+
+    @Benchmark
+    public void trieMatch(Blackhole blackhole) {
+        for (String request : requests) {
+            blackhole.consume(trie.match(request.substring(0, request.indexOf('?'))));
+        }
+    }
+
+    @Benchmark
+    public void tableMatch(Blackhole blackhole) {
+        for (String request : requests) {
+            blackhole.consume(table.match("GET", request));
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.benchmarks;
+
+import org.calrissian.restdoclet.RestDoclet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.tools.DocumentationTool;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A whole javadoc run of the doclet on generated apis of increasing sizes, from parsing the sources to writing
+ * the documentation, to see how a run scales with the number of endpoints.  The documentation is written in
+ * the working directory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ScaleBenchmark {
+
+    @Param({"100", "10000", "100000"})
+    public int endpoints;
+
+    @Param({"1", "4"})
+    public int threads;
+
+    @Param({"legacy", "swagger"})
+    public String output;
+
+    private Path root;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        root = Files.createTempDirectory("restdoclet-corpus-");
+        new CorpusGenerator().endpoints(endpoints).write(root);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        DocletFixture.delete(root);
+    }
+
+    @Benchmark
+    public void javadoc() throws IOException {
+        DocumentationTool tool = ToolProvider.getSystemDocumentationTool();
+        boolean success = tool.getTask(null, null, null, RestDoclet.class,
+                Arrays.asList(
+                        "-quiet",
+                        "-sourcepath", root.toString(),
+                        "-classpath", System.getProperty("java.class.path"),
+                        "-subpackages", CorpusGenerator.ROOT_PACKAGE,
+                        "-o", output,
+                        "-threads", Integer.toString(threads)),
+                null).call();
+        if (!success) {
+            throw new IOException("javadoc failed on " + root);
+        }
+    }
+}
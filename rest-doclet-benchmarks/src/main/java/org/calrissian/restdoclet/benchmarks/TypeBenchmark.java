@@ -0,0 +1,118 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.benchmarks;
+
+import org.calrissian.restdoclet.collector.CollectorEngine;
+import org.calrissian.restdoclet.model.ClassDescriptor;
+import org.calrissian.restdoclet.model.Endpoint;
+import org.calrissian.restdoclet.model.TypeRef;
+import org.calrissian.restdoclet.util.TypeResolver;
+import org.calrissian.restdoclet.writer.swagger.TypeUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Types;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolution of the return and parameter types of the corpus methods by the {@link TypeResolver}, with a new
+ * resolver as in a doclet run and with a resolver which already knows the types, then the naming of the
+ * resolved types and the lookup of their models by the swagger {@link TypeUtils}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TypeBenchmark {
+
+    private final List<TypeMirror> mirrors = new ArrayList<>();
+    private final List<TypeRef> types = new ArrayList<>();
+    private Types typeUtils;
+    private TypeResolver resolver;
+
+    @Setup(Level.Trial)
+    public void setUp(CorpusState corpus) {
+        for (ExecutableElement method : corpus.getMethods()) {
+            mirrors.add(method.getReturnType());
+            for (VariableElement parameter : method.getParameters()) {
+                mirrors.add(parameter.asType());
+            }
+        }
+
+        typeUtils = corpus.getEnvironment().getTypeUtils();
+        resolver = new TypeResolver(typeUtils);
+        for (TypeMirror mirror : mirrors) {
+            resolver.resolve(mirror);
+        }
+
+        for (ClassDescriptor descriptor : new CollectorEngine(corpus.newCollectors(), 1).collect(corpus.getEnvironment())) {
+            for (Endpoint endpoint : descriptor.getEndpoints()) {
+                types.add(endpoint.getType());
+            }
+        }
+    }
+
+    @Benchmark
+    public void resolve(Blackhole blackhole) {
+        TypeResolver resolver = new TypeResolver(typeUtils);
+        for (TypeMirror mirror : mirrors) {
+            blackhole.consume(resolver.resolve(mirror));
+        }
+    }
+
+    @Benchmark
+    public void resolveKnown(Blackhole blackhole) {
+        for (TypeMirror mirror : mirrors) {
+            blackhole.consume(resolver.resolve(mirror));
+        }
+    }
+
+    @Benchmark
+    public void swaggerTypes(Blackhole blackhole) {
+        for (TypeRef type : types) {
+            blackhole.consume(TypeUtils.dataType(type));
+            blackhole.consume(TypeUtils.allowableValues(type));
+        }
+    }
+
+    @Benchmark
+    public Map<String, TypeRef> swaggerModels() {
+        Map<String, TypeRef> models = new LinkedHashMap<>();
+        for (TypeRef type : types) {
+            TypeUtils.addModels(type, models);
+        }
+        return TypeUtils.reachableModels(models.values());
+    }
+}
@@ -0,0 +1,95 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.benchmarks;
+
+import org.calrissian.restdoclet.Configuration;
+import org.calrissian.restdoclet.collector.CollectorEngine;
+import org.calrissian.restdoclet.model.ClassDescriptor;
+import org.calrissian.restdoclet.writer.DescriptorSink;
+import org.calrissian.restdoclet.writer.Writer;
+import org.calrissian.restdoclet.writer.simple.SimpleHtmlWriter;
+import org.calrissian.restdoclet.writer.swagger.SwaggerWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.calrissian.restdoclet.Configuration.ConfigOption.SHARDED;
+import static org.calrissian.restdoclet.Configuration.ConfigOption.THREADS;
+
+/**
+ * Full output of the writers for the descriptors of the corpus, collected once per trial.  Like the doclet, the
+ * writers write in the working directory, the benchmarks are meant to be run from a scratch directory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class WriterBenchmark {
+
+    @Param({"1", "4"})
+    public int threads;
+
+    private Collection<ClassDescriptor> descriptors;
+
+    @Setup(Level.Trial)
+    public void setUp(CorpusState corpus) {
+        descriptors = new CollectorEngine(corpus.newCollectors(), 1).collect(corpus.getEnvironment());
+    }
+
+    @Benchmark
+    public void legacy() throws IOException {
+        write(new SimpleHtmlWriter(), false);
+    }
+
+    @Benchmark
+    public void legacySharded() throws IOException {
+        write(new SimpleHtmlWriter(), true);
+    }
+
+    @Benchmark
+    public void swagger() throws IOException {
+        write(new SwaggerWriter(), false);
+    }
+
+    private void write(Writer writer, boolean sharded) throws IOException {
+        Map<String, String> options = new HashMap<>();
+        options.put(THREADS.getOption(), Integer.toString(threads));
+        options.put(SHARDED.getOption(), Boolean.toString(sharded));
+
+        try (DescriptorSink sink = writer.open(new Configuration(options))) {
+            for (ClassDescriptor descriptor : descriptors) {
+                sink.accept(descriptor);
+            }
+        }
+    }
+}
@@ -0,0 +1,435 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.routes;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Maps request paths, such as /users/42/orders, back to the path templates of a route table written by the
+ * doclet -routes option, such as /users/{id}/orders.
+ * <p>
+ * The table is a trie with one node per path segment.  The literal segments of a node are found through a hash
+ * table, so the cost of a lookup depends on the number of segments of the path and not on the number of routes.
+ * The plain variables of a node share a single child whatever their names, /users/{id} and /users/{userId} are
+ * the same route, which keeps the template of each of its methods.  The variables with a regular expression are
+ * kept apart, one child per expression.
+ * <p>
+ * On each segment the literal is tried first, then the regular expressions in the order of the table and then
+ * the plain variable, the same precedence as the doclet gives its routes, and as JAX-RS gives the templates with
+ * a regular expression over the plain ones.  When a branch has no route for the rest of the path, the lookup
+ * backtracks to the next one.  Each node is reached from its parent only, so a lookup visits a node at most
+ * once: the cost of a lookup grows with the number of routes only when several regular expressions of a node
+ * match the same segment.  A lookup does not allocate: the segments are read in place and the regular
+ * expressions are matched with matchers kept per thread.  A variable only matches within a single segment.
+ * <p>
+ * A table is immutable and can be shared by several threads.
+ */
+public final class RouteTable {
+
+    private static final String HEADER_PREFIX = "# rest-doclet routes ";
+    private static final String VERSION = "1";
+
+    //Key of the child standing for every plain variable, no literal holds a brace.
+    private static final String WILDCARD = "{}";
+
+    private final Node root;
+    private final Pattern[] patterns;
+    private final ThreadLocal<Lookup> lookups;
+    private final int size;
+
+    private RouteTable(Node root, List<Pattern> patterns, int size) {
+        this.root = root;
+        this.patterns = patterns.toArray(new Pattern[0]);
+        this.lookups = ThreadLocal.withInitial(() -> new Lookup(this.patterns));
+        this.size = size;
+    }
+
+    public static RouteTable read(Path file) throws IOException {
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return read(reader);
+        }
+    }
+
+    public static RouteTable read(InputStream in) throws IOException {
+        return read(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Reads a route table: one route per line, an http method followed by a space and a path template.  Blank
+     * lines and lines starting with # are ignored.
+     * @param reader
+     * @return the table, not closing the reader.
+     * @throws IOException
+     */
+    public static RouteTable read(Reader reader) throws IOException {
+        BufferedReader lines = (reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader));
+        Node root = new Node(null);
+        List<Pattern> patterns = new ArrayList<>();
+        Set<String> templates = new HashSet<>();
+
+        String line;
+        int number = 0;
+        while ((line = lines.readLine()) != null) {
+            number++;
+            line = line.trim();
+            if (line.startsWith(HEADER_PREFIX) && !line.substring(HEADER_PREFIX.length()).trim().equals(VERSION)) {
+                throw new IOException("Unsupported route table version: " + line);
+            }
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+
+            int space = line.indexOf(' ');
+            String template = (space < 0 ? "" : line.substring(space + 1).trim());
+            if (!template.startsWith("/")) {
+                throw new IOException("Invalid route on line " + number + ": " + line);
+            }
+
+            Node node = root;
+            for (String segment : split(template)) {
+                node = node.child(segment, patterns);
+            }
+            node.addRoute(line.substring(0, space), template);
+            templates.add(template);
+        }
+
+        //The children are frozen into arrays once every route is known.
+        Deque<Node> nodes = new ArrayDeque<>();
+        nodes.push(root);
+        while (!nodes.isEmpty()) {
+            Node node = nodes.pop();
+            node.freeze();
+            for (Node child : node.children.values()) {
+                nodes.push(child);
+            }
+            node.children = null;
+        }
+        return new RouteTable(root, patterns, templates.size());
+    }
+
+    /**
+     * @param path a request path, the query string and the fragment are ignored.
+     * @return the template of the route matching the path for any method, null if no route matches.
+     */
+    public String match(CharSequence path) {
+        return match(null, path);
+    }
+
+    /**
+     * @param method the http method of the request, null for any method.
+     * @param path a request path, the query string and the fragment are ignored.
+     * @return the template of the route matching the path and the method, null if no route matches.
+     */
+    public String match(String method, CharSequence path) {
+        int end = 0;
+        while (end < path.length() && path.charAt(end) != '?' && path.charAt(end) != '#') {
+            end++;
+        }
+
+        return find(root, method, path, 0, end, lookups.get());
+    }
+
+    /**
+     * @return the number of path templates in the table.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Matches the remaining segments of the path from a node, backtracking when a branch has no route.  The
+     * depth of the recursion is the number of segments of the path.
+     * @return the template of the route, null if no route matches.
+     */
+    private static String find(Node node, String method, CharSequence path, int start, int end, Lookup lookup) {
+        while (start < end && path.charAt(start) == '/') {
+            start++;
+        }
+        if (start == end) {
+            return node.template(method);
+        }
+
+        int segmentEnd = start;
+        while (segmentEnd < end && path.charAt(segmentEnd) != '/') {
+            segmentEnd++;
+        }
+
+        Node literal = node.literal(path, start, segmentEnd);
+        if (literal != null) {
+            String found = find(literal, method, path, segmentEnd, end, lookup);
+            if (found != null) {
+                return found;
+            }
+        }
+
+        for (Node pattern : node.patterns) {
+            Matcher matcher = lookup.matchers[pattern.patternId].reset(path).region(start, segmentEnd);
+            if (matcher.matches()) {
+                String found = find(pattern, method, path, segmentEnd, end, lookup);
+                if (found != null) {
+                    return found;
+                }
+            }
+        }
+
+        if (node.wildcard != null) {
+            return find(node.wildcard, method, path, segmentEnd, end, lookup);
+        }
+        return null;
+    }
+
+    /**
+     * Splits a template on the separators outside of the braces, a regular expression can hold a separator.
+     */
+    private static List<String> split(String template) {
+        List<String> segments = new ArrayList<>();
+        int depth = 0;
+        int start = 0;
+        for (int i = 0; i <= template.length(); i++) {
+            char c = (i == template.length() ? '/' : template.charAt(i));
+            if (c == '{') {
+                depth++;
+            } else if (c == '}' && depth > 0) {
+                depth--;
+            } else if (c == '/' && depth == 0) {
+                if (i > start) {
+                    segments.add(template.substring(start, i));
+                }
+                start = i + 1;
+            }
+        }
+        return segments;
+    }
+
+    /**
+     * Translates a segment holding variables, the literals are quoted and each variable matches its regular
+     * expression or, when it has none, any text.  The names of the variables are left out.
+     */
+    private static String regex(String segment) {
+        StringBuilder regex = new StringBuilder();
+        int start = 0;
+        while (start < segment.length()) {
+            int open = segment.indexOf('{', start);
+            if (open < 0) {
+                regex.append(Pattern.quote(segment.substring(start)));
+                break;
+            }
+            if (open > start) {
+                regex.append(Pattern.quote(segment.substring(start, open)));
+            }
+
+            //Braces may be nested within the regular expression.
+            int depth = 0;
+            int close = open;
+            for (; close < segment.length(); close++) {
+                char c = segment.charAt(close);
+                if (c == '{') {
+                    depth++;
+                } else if (c == '}' && --depth == 0) {
+                    break;
+                }
+            }
+
+            String variable = segment.substring(open + 1, Math.min(close, segment.length()));
+            int colon = variable.indexOf(':');
+            regex.append('(').append(colon < 0 ? ".+" : variable.substring(colon + 1).trim()).append(')');
+            start = close + 1;
+        }
+        return regex.toString();
+    }
+
+    private static int hash(CharSequence value, int start, int end) {
+        //Same as String.hashCode, computed over a region of the path.
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + value.charAt(i);
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    private static final Node[] NO_NODES = new Node[0];
+    private static final String[] NO_STRINGS = new String[0];
+
+    /**
+     * The matchers of the lookups of a thread.
+     */
+    private static final class Lookup {
+        private final Matcher[] matchers;
+
+        Lookup(Pattern[] patterns) {
+            matchers = new Matcher[patterns.length];
+            for (int i = 0; i < matchers.length; i++) {
+                matchers[i] = patterns[i].matcher("");
+            }
+        }
+    }
+
+    /**
+     * A segment of a route.  The children are kept in a map while the table is read, then frozen into arrays.
+     */
+    private static final class Node {
+        private final String segment;
+        private int patternId = -1;
+        //The methods of the routes ending on the node and the template of each, the first one added wins.
+        private String[] methods = NO_STRINGS;
+        private String[] templates = NO_STRINGS;
+
+        //Children by literal, by regular expression for the patterns and under WILDCARD for the plain variables.
+        private Map<String, Node> children = new LinkedHashMap<>();
+
+        //Literal children, in an open addressing hash table.
+        private String[] keys;
+        private Node[] literals;
+        private Node wildcard;
+        private Node[] patterns = NO_NODES;
+
+        Node(String segment) {
+            this.segment = segment;
+        }
+
+        Node child(String segment, List<Pattern> patterns) {
+            String key = segment;
+            String regex = null;
+            if (isPattern(segment)) {
+                regex = regex(segment);
+                key = "{" + regex;
+            } else if (segment.indexOf('{') >= 0) {
+                key = WILDCARD;
+            }
+
+            Node child = children.get(key);
+            if (child == null) {
+                child = new Node(key);
+                if (regex != null) {
+                    child.patternId = patterns.size();
+                    patterns.add(Pattern.compile(regex));
+                }
+                children.put(key, child);
+            }
+            return child;
+        }
+
+        void addRoute(String method, String template) {
+            for (String known : methods) {
+                if (known.equalsIgnoreCase(method)) {
+                    return;
+                }
+            }
+            methods = append(methods, method);
+            templates = append(templates, template);
+        }
+
+        /**
+         * @param method null for any method.
+         * @return the template of the route ending on the node for the method, null if there is none.
+         */
+        String template(String method) {
+            if (method == null) {
+                return (templates.length == 0 ? null : templates[0]);
+            }
+            for (int i = 0; i < methods.length; i++) {
+                if (methods[i].equalsIgnoreCase(method)) {
+                    return templates[i];
+                }
+            }
+            return null;
+        }
+
+        private static String[] append(String[] values, String value) {
+            String[] grown = new String[values.length + 1];
+            System.arraycopy(values, 0, grown, 0, values.length);
+            grown[values.length] = value;
+            return grown;
+        }
+
+        Node literal(CharSequence path, int start, int end) {
+            if (keys == null) {
+                return null;
+            }
+            int length = end - start;
+            for (int i = hash(path, start, end) & (keys.length - 1); keys[i] != null; i = (i + 1) & (keys.length - 1)) {
+                String key = keys[i];
+                if (key.length() == length && regionEquals(key, path, start)) {
+                    return literals[i];
+                }
+            }
+            return null;
+        }
+
+        void freeze() {
+            List<Node> literalNodes = new ArrayList<>();
+            List<Node> patternNodes = new ArrayList<>();
+            for (Node child : children.values()) {
+                if (child.segment.indexOf('{') < 0) {
+                    literalNodes.add(child);
+                } else if (child.patternId >= 0) {
+                    patternNodes.add(child);
+                } else {
+                    wildcard = child;
+                }
+            }
+
+            if (!literalNodes.isEmpty()) {
+                //At most half full, so a probe ends quickly on an empty slot.
+                int capacity = Integer.highestOneBit(literalNodes.size() * 2 - 1) << 1;
+                keys = new String[capacity];
+                literals = new Node[capacity];
+                for (Node literal : literalNodes) {
+                    int i = hash(literal.segment, 0, literal.segment.length()) & (capacity - 1);
+                    while (keys[i] != null) {
+                        i = (i + 1) & (capacity - 1);
+                    }
+                    keys[i] = literal.segment;
+                    literals[i] = literal;
+                }
+            }
+            patterns = patternNodes.toArray(NO_NODES);
+        }
+
+        private static boolean isPattern(String segment) {
+            if (segment.indexOf('{') < 0) {
+                return false;
+            }
+            return !(segment.charAt(0) == '{' && segment.indexOf('}') == segment.length() - 1 && segment.indexOf(':') < 0);
+        }
+
+        private static boolean regionEquals(String key, CharSequence path, int start) {
+            for (int i = 0; i < key.length(); i++) {
+                if (key.charAt(i) != path.charAt(start + i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.routes;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+public class RouteTableTest {
+
+    private static RouteTable table(String... routes) throws IOException {
+        return RouteTable.read(new StringReader(String.join("\n", routes)));
+    }
+
+    @Test
+    public void literalBeforeVariable() throws IOException {
+        RouteTable routes = table("GET /users/{id}", "GET /users/me", "GET /users/{id}/orders");
+
+        assertEquals("/users/me", routes.match("/users/me"));
+        assertEquals("/users/{id}", routes.match("/users/42"));
+        assertEquals("/users/{id}/orders", routes.match("/users/me/orders"));
+        assertNull(routes.match("/users"));
+        assertNull(routes.match("/accounts/42"));
+    }
+
+    @Test
+    public void variableNamesShareRoute() throws IOException {
+        RouteTable routes = table("GET /users/{id}", "DELETE /users/{userId}", "PUT /users/{name}");
+
+        assertEquals(3, routes.size());
+        assertEquals("/users/{id}", routes.match("GET", "/users/42"));
+        assertEquals("/users/{userId}", routes.match("DELETE", "/users/42"));
+        assertEquals("/users/{name}", routes.match("PUT", "/users/42"));
+        assertEquals("/users/{id}", routes.match("/users/42"));
+    }
+
+    @Test
+    public void regexSegments() throws IOException {
+        RouteTable routes = table("GET /orders/{id:[0-9]+}", "GET /files/{name}.{ext:[a-z]+}",
+                "GET /tags/{code:[A-Z]{2}}");
+
+        assertEquals("/orders/{id:[0-9]+}", routes.match("/orders/42"));
+        assertNull(routes.match("/orders/abc"));
+        assertEquals("/files/{name}.{ext:[a-z]+}", routes.match("/files/report.pdf"));
+        assertNull(routes.match("/files/report"));
+        assertEquals("/tags/{code:[A-Z]{2}}", routes.match("/tags/FR"));
+        assertNull(routes.match("/tags/FRA"));
+    }
+
+    @Test
+    public void regexBeforeVariable() throws IOException {
+        RouteTable routes = table("GET /items/{name}", "GET /items/{id:[0-9]+}",
+                "GET /items/{name}/details", "GET /items/{id:[0-9]+}/history");
+
+        assertEquals("/items/{id:[0-9]+}", routes.match("/items/42"));
+        assertEquals("/items/{name}", routes.match("/items/abc"));
+        assertEquals("/items/{id:[0-9]+}/history", routes.match("/items/42/history"));
+        //The regular expression has no details, the lookup backtracks to the plain variable.
+        assertEquals("/items/{name}/details", routes.match("/items/42/details"));
+        assertNull(routes.match("/items/abc/history"));
+    }
+
+    @Test
+    public void methodMismatch() throws IOException {
+        RouteTable routes = table("GET /users/{id}", "POST /users/me");
+
+        assertNull(routes.match("DELETE", "/users/42"));
+        assertEquals("/users/{id}", routes.match("get", "/users/42"));
+        assertEquals("/users/me", routes.match("POST", "/users/me"));
+        //The literal has no GET route, the lookup backtracks to the variable.
+        assertEquals("/users/{id}", routes.match("GET", "/users/me"));
+    }
+
+    @Test
+    public void trailingSlash() throws IOException {
+        RouteTable routes = table("GET /", "GET /users/{id}");
+
+        assertEquals("/", routes.match("/"));
+        assertEquals("/", routes.match(""));
+        assertEquals("/users/{id}", routes.match("/users/42/"));
+        assertEquals("/users/{id}", routes.match("//users//42"));
+        assertEquals("/users/{id}", routes.match("/users/42?expand=true#top"));
+        assertEquals("/users/{id}", routes.match("/users/42/?expand=true"));
+    }
+
+    @Test
+    public void overlappingRegexes() throws IOException {
+        //Every expression matches the second segment, only the last route has the third one.
+        String[] lines = new String[5001];
+        for (int i = 0; i < 5000; i++) {
+            lines[i] = "GET /p/{x:q|" + i + "}/end";
+        }
+        lines[5000] = "GET /p/{y:q}/other";
+        RouteTable routes = table(lines);
+
+        assertEquals("/p/{x:q|0}/end", routes.match("/p/q/end"));
+        assertEquals("/p/{y:q}/other", routes.match("/p/q/other"));
+        assertNull(routes.match("/p/q/none"));
+    }
+
+    @Test
+    public void invalidTable() throws IOException {
+        assertEquals(0, table("# rest-doclet routes 1", "", "# comment").size());
+        try {
+            table("# rest-doclet routes 2");
+            fail("Unsupported version");
+        } catch (IOException expected) {
+        }
+        try {
+            table("GET users");
+            fail("Relative template");
+        } catch (IOException expected) {
+        }
+    }
+}
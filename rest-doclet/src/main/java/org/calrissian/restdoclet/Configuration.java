@@ -22,10 +22,16 @@ public class Configuration {
 
     public enum ConfigOption {
         OUTPUT_FORMAT("o", "Output Format", "legacy"),
+        THREADS("threads", "threads", "1"),
+        CACHE("cache", "cache", null),
+        SNAPSHOT("snapshot", "snapshot file", null),
+        ROUTES("routes", "route table file", null),
+        METRICS("metrics", "metrics report file", null),
 
         //Legacy Options
         TITLE("t", "title", "REST Endpoint Descriptions"),
         STYLESHEET("stylesheet", "stylesheet", "./stylesheet.css"),
+        SHARDED("sharded", "one page per class", "false"),
 
         //Swagger options
         API_VERSION("version", "version", null),
@@ -76,6 +82,10 @@ public class Configuration {
         return getOption(ConfigOption.STYLESHEET);
     }
 
+    public boolean isSharded() {
+        return parseBoolean(getOption(ConfigOption.SHARDED));
+    }
+
     public String getApiVersion() {
         return getOption(ConfigOption.API_VERSION);
     }
@@ -88,6 +98,30 @@ public class Configuration {
         return parseBoolean(getOption(ConfigOption.DISPLAY_ONLY));
     }
 
+    public int getThreads() {
+        try {
+            return Math.max(1, Integer.parseInt(getOption(ConfigOption.THREADS)));
+        } catch (NumberFormatException e) {
+            return 1;
+        }
+    }
+
+    public String getCacheDir() {
+        return getOption(ConfigOption.CACHE);
+    }
+
+    public String getSnapshotFile() {
+        return getOption(ConfigOption.SNAPSHOT);
+    }
+
+    public String getRoutesFile() {
+        return getOption(ConfigOption.ROUTES);
+    }
+
+    public String getMetricsFile() {
+        return getOption(ConfigOption.METRICS);
+    }
+
     public boolean isdefaultStyleSheet() {
         return getOption(ConfigOption.STYLESHEET.getOption(), null) == null;
     }
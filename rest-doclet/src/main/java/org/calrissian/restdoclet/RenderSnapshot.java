@@ -0,0 +1,60 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet;
+
+import org.calrissian.restdoclet.snapshot.SnapshotReader;
+import org.calrissian.restdoclet.writer.DescriptorSink;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.calrissian.restdoclet.Configuration.getOptionLength;
+
+/**
+ * Renders a snapshot saved with the -snapshot doclet option, without running javadoc.  It accepts the same
+ * options as the doclet, the output is written in the working directory.
+ *
+ * Usage: java org.calrissian.restdoclet.RenderSnapshot -snapshot &lt;file&gt; [-o legacy|swagger|openapi] [options]
+ */
+public class RenderSnapshot {
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i += 2) {
+            if (getOptionLength(args[i]) != 2 || i + 1 >= args.length) {
+                usage("Invalid option: " + args[i]);
+            }
+            options.put(args[i], args[i + 1]);
+        }
+
+        Configuration config = new Configuration(options);
+        if (config.getSnapshotFile() == null) {
+            usage("Missing option: -snapshot");
+        }
+
+        try (DescriptorSink sink = RestDoclet.openWriter(config)) {
+            SnapshotReader.read(new File(config.getSnapshotFile()), sink);
+        }
+    }
+
+    private static void usage(String message) {
+        System.err.println(message);
+        System.err.println("Usage: java " + RenderSnapshot.class.getName() + " -snapshot <file> [-o legacy|swagger|openapi] [options]");
+        System.exit(1);
+    }
+}
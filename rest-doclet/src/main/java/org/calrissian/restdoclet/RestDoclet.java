@@ -18,20 +18,29 @@ package org.calrissian.restdoclet;
 import jdk.javadoc.doclet.Doclet;
 import jdk.javadoc.doclet.StandardDoclet;
 import jdk.javadoc.doclet.DocletEnvironment;
-import org.calrissian.restdoclet.collector.Collector;
+import org.calrissian.restdoclet.collector.AbstractCollector;
+import org.calrissian.restdoclet.collector.CollectorEngine;
+import org.calrissian.restdoclet.collector.DescriptorCache;
 import org.calrissian.restdoclet.collector.jaxrs.JaxRSCollector;
 import org.calrissian.restdoclet.collector.spring.SpringCollector;
-import org.calrissian.restdoclet.model.ClassDescriptor;
+import org.calrissian.restdoclet.metrics.MetricsReport;
+import org.calrissian.restdoclet.metrics.RunMetrics;
+import org.calrissian.restdoclet.snapshot.SnapshotWriter;
+import org.calrissian.restdoclet.util.DocCommentCache;
+import org.calrissian.restdoclet.util.TypeResolver;
+import org.calrissian.restdoclet.writer.DescriptorSink;
 import org.calrissian.restdoclet.writer.Writer;
+import org.calrissian.restdoclet.writer.openapi.OpenApiWriter;
+import org.calrissian.restdoclet.writer.routes.RouteTableWriter;
 import org.calrissian.restdoclet.writer.simple.SimpleHtmlWriter;
 import org.calrissian.restdoclet.writer.swagger.SwaggerWriter;
 
+import java.io.File;
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -40,9 +49,15 @@ import javax.lang.model.SourceVersion;
 import jdk.javadoc.doclet.Reporter;
 import static org.calrissian.restdoclet.Configuration.ConfigOption.API_VERSION;
 import static org.calrissian.restdoclet.Configuration.ConfigOption.BASEPATH;
+import static org.calrissian.restdoclet.Configuration.ConfigOption.CACHE;
 import static org.calrissian.restdoclet.Configuration.ConfigOption.DISPLAY_ONLY;
+import static org.calrissian.restdoclet.Configuration.ConfigOption.METRICS;
 import static org.calrissian.restdoclet.Configuration.ConfigOption.OUTPUT_FORMAT;
+import static org.calrissian.restdoclet.Configuration.ConfigOption.ROUTES;
+import static org.calrissian.restdoclet.Configuration.ConfigOption.SHARDED;
+import static org.calrissian.restdoclet.Configuration.ConfigOption.SNAPSHOT;
 import static org.calrissian.restdoclet.Configuration.ConfigOption.STYLESHEET;
+import static org.calrissian.restdoclet.Configuration.ConfigOption.THREADS;
 import static org.calrissian.restdoclet.Configuration.ConfigOption.TITLE;
 
 import static org.calrissian.restdoclet.Configuration.getOptionLength;
@@ -65,9 +80,15 @@ public class RestDoclet implements Doclet {
     public Set<? extends Option> getSupportedOptions() {
         Set<ConfigOption> options = new HashSet<>();
         options.add(new ConfigOption(OUTPUT_FORMAT));
+        options.add(new ConfigOption(THREADS));
+        options.add(new ConfigOption(CACHE));
+        options.add(new ConfigOption(SNAPSHOT));
+        options.add(new ConfigOption(ROUTES));
+        options.add(new ConfigOption(METRICS));
         //Legacy Options
         options.add(new ConfigOption(TITLE));
         options.add(new ConfigOption(STYLESHEET));
+        options.add(new ConfigOption(SHARDED));
         //Swagger options
         options.add(new ConfigOption(API_VERSION));
         options.add(new ConfigOption(DISPLAY_ONLY));
@@ -82,35 +103,116 @@ public class RestDoclet implements Doclet {
      * @return true on success.
      */
     @Override
+    @SuppressWarnings("try")
     public boolean run(DocletEnvironment root) {
 
         Configuration config = new Configuration(options);
+        RunMetrics metrics = (config.getMetricsFile() == null ? RunMetrics.disabled() : new RunMetrics());
 
-        Collection<ClassDescriptor> classDescriptors = new ArrayList<>();
-
-        final Collection<Collector> collectors = Arrays.<Collector>asList(
-            new SpringCollector(root.getDocTrees()),
-            new JaxRSCollector(root.getDocTrees())
-        );
+        boolean success;
+        try (RunMetrics.Timer total = metrics.phase("total")) {
+            success = generate(root, config, metrics);
+        }
 
-        for (Collector collector : collectors) {
-            classDescriptors.addAll(collector.getDescriptors(root));
+        if (metrics.isEnabled()) {
+            try {
+                writeMetrics(config, metrics);
+            } catch (IOException e) {
+                e.printStackTrace();
+                return false;
+            }
         }
+        return success;
+    }
 
-        Writer writer;
-        if (config.getOutputFormat().equals(SwaggerWriter.OUTPUT_OPTION_NAME)) {
-            writer = new SwaggerWriter();
-        } else {
-            writer = new SimpleHtmlWriter();
+    /**
+     * Collects the endpoints and writes the documentation, in three phases: setup, collect and close.  The
+     * documentation is mostly written while collecting, the writers which need every class write when closed.
+     */
+    private static boolean generate(DocletEnvironment root, Configuration config, RunMetrics metrics) {
+        RunMetrics.Timer phase = metrics.phase("setup");
+
+        //Doc comments are parsed and model classes resolved once per run, shared by all the collectors.
+        DocCommentCache docComments = new DocCommentCache(root.getDocTrees());
+        TypeResolver types = new TypeResolver(root.getTypeUtils());
+
+        final List<AbstractCollector> collectors = Arrays.<AbstractCollector>asList(
+            new SpringCollector(root.getDocTrees(), docComments, types),
+            new JaxRSCollector(root.getDocTrees(), docComments, types)
+        );
+
+        //Classes which did not change since the previous run are loaded from the cache when one is configured.
+        DescriptorCache cache = null;
+        if (config.getCacheDir() != null) {
+            cache = new DescriptorCache(new File(config.getCacheDir()), root.getElementUtils(), types);
         }
 
-        try {
-            writer.write(classDescriptors, config);
+        //A single pass over the included elements feeds every collector, each class is written once collected.
+        try (DescriptorSink sink = openSink(config, metrics)) {
+            phase.close();
+            phase = metrics.phase("collect");
+            new CollectorEngine(collectors, config.getThreads(), cache, metrics).collect(root, sink);
+            phase.close();
+            //Ends once the sink is closed.
+            phase = metrics.phase("close");
             return true;
         } catch (IOException e) {
             e.printStackTrace();
             return false;
+        } finally {
+            phase.close();
+            metrics.count(RunMetrics.DOC_COMMENTS_PARSED, docComments.getParsedCount());
+        }
+    }
+
+    private static DescriptorSink openSink(Configuration config, RunMetrics metrics) throws IOException {
+        DescriptorSink sink = openWriter(config, metrics);
+
+        //Saving the model allows rendering it again without running javadoc, see RenderSnapshot.
+        if (config.getSnapshotFile() != null) {
+            sink = DescriptorSink.tee(metrics.meter("snapshot", new SnapshotWriter(new File(config.getSnapshotFile()), metrics)), sink);
+        }
+        return sink;
+    }
+
+    /**
+     * @param config
+     * @return the sink of the configured output format, also writing the route table when one is configured.
+     */
+    static DescriptorSink openWriter(Configuration config) throws IOException {
+        return openWriter(config, RunMetrics.disabled());
+    }
+
+    private static DescriptorSink openWriter(Configuration config, RunMetrics metrics) throws IOException {
+        DescriptorSink sink = metrics.meter(config.getOutputFormat(), getWriter(config).open(config, metrics));
+        if (config.getRoutesFile() != null) {
+            sink = DescriptorSink.tee(metrics.meter("routes", new RouteTableWriter(new File(config.getRoutesFile()), metrics)), sink);
+        }
+        return sink;
+    }
+
+    /**
+     * Writes the metrics report, the bytes written having been counted by the writers as they wrote.
+     */
+    private static void writeMetrics(Configuration config, RunMetrics metrics) throws IOException {
+        Map<String, String> labels = new LinkedHashMap<>();
+        labels.put("format", config.getOutputFormat());
+        labels.put("threads", Integer.toString(config.getThreads()));
+        new MetricsReport(metrics, labels).write(new File(config.getMetricsFile()));
+    }
+
+    /**
+     * @param config
+     * @return the writer for the configured output format.
+     */
+    static Writer getWriter(Configuration config) {
+        if (config.getOutputFormat().equals(SwaggerWriter.OUTPUT_OPTION_NAME)) {
+            return new SwaggerWriter();
+        }
+        if (config.getOutputFormat().equals(OpenApiWriter.OUTPUT_OPTION_NAME)) {
+            return new OpenApiWriter();
         }
+        return new SimpleHtmlWriter();
     }
 
     /**
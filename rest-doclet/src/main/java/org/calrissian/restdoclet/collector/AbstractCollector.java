@@ -21,28 +21,54 @@ import org.calrissian.restdoclet.model.*;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedHashSet;
 
-import static java.util.Collections.emptyList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.type.NoType;
 import javax.lang.model.type.TypeMirror;
 import jdk.javadoc.doclet.DocletEnvironment;
+import org.calrissian.restdoclet.util.DocCommentCache;
+import org.calrissian.restdoclet.util.TypeResolver;
 import static org.calrissian.restdoclet.util.CommonUtils.*;
 import static org.calrissian.restdoclet.util.TagUtils.*;
 
 public abstract class AbstractCollector implements Collector {
 
     protected final DocTrees treeUtils;
+    protected final DocCommentCache docComments;
+    protected final TypeResolver types;
+
+    //Endpoint templates of each class, including the inherited ones.
+    private final Map<TypeElement, List<EndpointTemplate>> templateCache = new ConcurrentHashMap<>();
+
+    //Canonical endpoint paths, each path is stored once for the life of the collector.
+    private final Map<String, String> pathCache = new ConcurrentHashMap<>();
 
     public AbstractCollector(DocTrees treeUtils) {
+        this(treeUtils, new DocCommentCache(treeUtils));
+    }
+
+    public AbstractCollector(DocTrees treeUtils, DocCommentCache docComments) {
+        this(treeUtils, docComments, new TypeResolver());
+    }
+
+    /**
+     * @param treeUtils
+     * @param docComments
+     * @param types shared by the collectors of a run, so each model class is resolved once.
+     */
+    public AbstractCollector(DocTrees treeUtils, DocCommentCache docComments, TypeResolver types) {
         this.treeUtils = treeUtils;
+        this.docComments = docComments;
+        this.types = types;
     }
 
-    protected abstract boolean shouldIgnoreClass(TypeElement classDoc);
     protected abstract boolean shouldIgnoreMethod(ExecutableElement methodDoc);
     protected abstract EndpointMapping getEndpointMapping(Element doc);
     protected abstract Collection<PathVar> generatePathVars(ExecutableElement methodDoc);
@@ -56,19 +82,51 @@ public abstract class AbstractCollector implements Collector {
      */
     @Override
     public Collection<ClassDescriptor> getDescriptors(DocletEnvironment rootDoc) {
-        Collection<ClassDescriptor> classDescriptors = new ArrayList<>();
-
-        //Loop through all of the classes and if it contains endpoints then add it to the set of descriptors.
-        for (Element e : rootDoc.getIncludedElements()) {
-            if (e instanceof TypeElement) {
-                TypeElement classDoc = (TypeElement) e;
-                ClassDescriptor descriptor = getClassDescriptor(classDoc);
-                if (descriptor != null && !isEmpty(descriptor.getEndpoints())) {
-                    classDescriptors.add(descriptor);
-                }
-            }
+        return getDescriptors(rootDoc, 1);
+    }
+
+    /**
+     * Will generate and aggregate all the rest endpoint class descriptors, building them on a pool of the given size.
+     * @param rootDoc
+     * @param threads
+     * @return
+     */
+    @Override
+    public Collection<ClassDescriptor> getDescriptors(DocletEnvironment rootDoc, int threads) {
+        return new CollectorEngine(Collections.singletonList(this), threads).collect(rootDoc);
+    }
+
+    /**
+     * Checks whether this collector handles the class, based on the annotations of the class and its methods.
+     * @param annotations
+     * @return
+     */
+    protected abstract boolean claims(ClassAnnotations annotations);
+
+    protected boolean shouldIgnoreClass(TypeElement classDoc) {
+        return !claims(ClassAnnotations.read(classDoc));
+    }
+
+    /**
+     * Reads, on the calling thread, every part of the javac model used to build the descriptor of the class:
+     * the doc comment and the mapping of the class, and the templates of its methods and of the methods of its
+     * super classes.  The descriptor is then built by {@link #buildClassDescriptor(ClassRecord)} without
+     * touching the javac model, which is not thread safe.
+     * @param classDoc
+     * @return null if the class holds the ignore tag.
+     */
+    protected ClassRecord snapshot(TypeElement classDoc) {
+
+        //If the ignore tag is present then simply ignore this class
+        if (!isEmpty(docComments.get(classDoc).getTags(IGNORE_TAG))) {
+            return null;
         }
-        return classDescriptors;
+        return new ClassRecord(
+                getContextPath(classDoc),
+                getEndpointMapping(classDoc),
+                getTemplates(classDoc),
+                getClassName(classDoc),
+                getClassDescription(classDoc));
     }
 
     /**
@@ -80,20 +138,41 @@ public abstract class AbstractCollector implements Collector {
      */
     protected ClassDescriptor getClassDescriptor(TypeElement classDoc) {
 
-        //If the ignore tag is present or this type of class should be ignored then simply ignore this class
-        if (!isEmpty(getTags(classDoc, IGNORE_TAG, treeUtils)) || shouldIgnoreClass(classDoc)) {
+        //If this type of class should be ignored then simply ignore this class
+        if (shouldIgnoreClass(classDoc)) {
+            return null;
+        }
+        return buildClassDescriptor(classDoc);
+    }
+
+    /**
+     * Same as {@link #getClassDescriptor(TypeElement)} for a class already known to be handled by this collector.
+     * @param classDoc
+     * @return
+     */
+    protected ClassDescriptor buildClassDescriptor(TypeElement classDoc) {
+        return buildClassDescriptor(snapshot(classDoc));
+    }
+
+    /**
+     * Builds the descriptor of a class from its record only, so it can run on any thread.
+     * @param record
+     * @return null if the record is null or the class has no endpoint.
+     */
+    protected ClassDescriptor buildClassDescriptor(ClassRecord record) {
+        if (record == null) {
             return null;
         }
-        String contextPath = getContextPath(classDoc);
-        Collection<Endpoint> endpoints = getAllEndpoints(contextPath, classDoc, getEndpointMapping(classDoc));
+        String contextPath = record.getContextPath();
+        Collection<EndpointGroup> endpoints = getAllEndpoints(contextPath, record);
 
         //If there are no endpoints then no use in providing documentation.
         if (isEmpty(endpoints)) {
             return null;
         }
 
-        String name = getClassName(classDoc);
-        String description = getClassDescription(classDoc);
+        String name = record.getName();
+        String description = record.getDescription();
 
         return new ClassDescriptor(
                 (name == null ? "" : name),
@@ -104,17 +183,41 @@ public abstract class AbstractCollector implements Collector {
     }
 
     /**
-     * Retrieves all the end point provided in the specified class doc.
+     * Retrieves all the end point provided in the specified class record.
      * @param contextPath
+     * @param record
+     * @return
+     */
+    private Collection<EndpointGroup> getAllEndpoints(String contextPath, ClassRecord record) {
+        Collection<EndpointGroup> endpoints = new ArrayList<>();
+
+        for (EndpointTemplate template : record.getTemplates()) {
+            EndpointGroup group = getEndpoint(contextPath, record.getClassMapping(), template);
+            if (group.size() > 0) {
+                endpoints.add(group);
+            }
+        }
+        return endpoints;
+    }
+
+    /**
+     * Retrieves the endpoint templates of the methods of the class and of its super classes.  The templates are
+     * cached per class for the run, so a base class shared by many controllers is only processed once.
      * @param classDoc
-     * @param classMapping
      * @return
      */
-    protected Collection<Endpoint> getAllEndpoints(String contextPath, TypeElement classDoc, EndpointMapping classMapping) {
-        Collection<Endpoint> endpoints = new ArrayList<>();
+    private List<EndpointTemplate> getTemplates(TypeElement classDoc) {
+        List<EndpointTemplate> templates = templateCache.get(classDoc);
+        if (templates != null) {
+            return templates;
+        }
 
+        templates = new ArrayList<>();
         for (ExecutableElement method : getMethods(classDoc)) {
-            endpoints.addAll(getEndpoint(contextPath, classMapping, method));
+            EndpointTemplate template = getTemplate(method);
+            if (template != null) {
+                templates.add(template);
+            }
         }
 
         //Check super classes for inherited methods
@@ -122,58 +225,62 @@ public abstract class AbstractCollector implements Collector {
         if (superClass != null && !(superClass instanceof NoType)) {
             TypeElement te = asTypeElement(classDoc.getSuperclass());
             if (te != null) {
-                endpoints.addAll(getAllEndpoints(contextPath, te, classMapping));
+                templates.addAll(getTemplates(te));
             }
         }
-        return endpoints;
+
+        templates = Collections.unmodifiableList(templates);
+        List<EndpointTemplate> previous = templateCache.putIfAbsent(classDoc, templates);
+        return (previous == null ? templates : previous);
     }
 
     /**
-     * Retrieves the endpoint for a single method.
+     * Retrieves the path independent parts of the endpoint for a single method.
      *
      * If any method contains the special javadoc tag {@link org.calrissian.restdoclet.util.TagUtils.IGNORE_TAG} it will be excluded.
-     * @param contextPath
-     * @param classMapping
      * @param method
-     * @return
+     * @return null if the method should be ignored.
      */
-    protected Collection<Endpoint> getEndpoint(String contextPath, EndpointMapping classMapping, ExecutableElement method) {
+    private EndpointTemplate getTemplate(ExecutableElement method) {
 
         //If the ignore tag is present then simply return nothing for this endpoint.
-        if (!isEmpty(getTags(method, IGNORE_TAG, treeUtils)) || shouldIgnoreMethod(method))
-            return emptyList();
-
-        Collection<Endpoint> endpoints = new ArrayList<>();
-        EndpointMapping methodMapping = getEndpointMapping(method);
-
-        Collection<String> paths = resolvePaths(contextPath, classMapping, methodMapping);
-        Collection<String> httpMethods = resolveHttpMethods(classMapping, methodMapping);
-        Collection<String> consumes = resolveConsumesInfo(classMapping, methodMapping);
-        Collection<String> produces = resolvesProducesInfo(classMapping, methodMapping);
-        Collection<PathVar> pathVars = generatePathVars(method);
-        Collection<QueryParam> queryParams = generateQueryParams(method);
-        RequestBody requestBody = generateRequestBody(method);
-        String firstSentence = firstSentence(method, treeUtils);
-        String body = fullBody(method, treeUtils);
-
-        for (String httpMethod : httpMethods) {
-            for (String path : paths) {
-                Endpoint ep = new Endpoint(
-                                path,
-                                httpMethod,
-                                queryParams,
-                                pathVars,
-                                requestBody,
-                                consumes,
-                                produces,
-                                firstSentence,
-                                body,
-                                method.getReturnType());
-                endpoints.add(ep);
-            }
-        }
+        if (!isEmpty(docComments.get(method).getTags(IGNORE_TAG)) || shouldIgnoreMethod(method))
+            return null;
 
-        return endpoints;
+        return new EndpointTemplate(
+                getEndpointMapping(method),
+                generatePathVars(method),
+                generateQueryParams(method),
+                generateRequestBody(method),
+                docComments.get(method).getFirstSentence(),
+                docComments.get(method).getFullBody(),
+                types.resolve(method.getReturnType())
+        );
+    }
+
+    /**
+     * Applies the context path and the class mapping of a class to the template of one of its methods.  The
+     * resulting group holds the resolved paths and http methods, the endpoints for each combination are only
+     * created when a writer iterates over them.
+     * @param contextPath
+     * @param classMapping
+     * @param template
+     * @return
+     */
+    private EndpointGroup getEndpoint(String contextPath, EndpointMapping classMapping, EndpointTemplate template) {
+        EndpointMapping methodMapping = template.getMethodMapping();
+
+        return new EndpointGroup(
+                resolvePaths(contextPath, classMapping, methodMapping),
+                resolveHttpMethods(classMapping, methodMapping),
+                template.getQueryParams(),
+                template.getPathVars(),
+                template.getRequestBody(),
+                resolveConsumesInfo(classMapping, methodMapping),
+                resolvesProducesInfo(classMapping, methodMapping),
+                template.getFirstSentence(),
+                template.getBody(),
+                template.getType());
     }
 
     /**
@@ -185,7 +292,7 @@ public abstract class AbstractCollector implements Collector {
      * @return
      */
     protected String getContextPath(TypeElement classDoc) {
-        List<String> tags = getTags(classDoc, CONTEXT_TAG, treeUtils);
+        List<String> tags = docComments.get(classDoc).getTags(CONTEXT_TAG);
         if(!isEmpty(tags)) {
             return tags.get(0);
         }
@@ -201,7 +308,7 @@ public abstract class AbstractCollector implements Collector {
      * @return
      */
     protected String getClassName(TypeElement classDoc) {
-        List<String> tags = getTags(classDoc, NAME_TAG, treeUtils);
+        List<String> tags = docComments.get(classDoc).getTags(NAME_TAG);
         if(!isEmpty(tags)) {
             return tags.get(0);
         }
@@ -214,7 +321,7 @@ public abstract class AbstractCollector implements Collector {
      * @return
      */
     protected String getClassDescription(TypeElement classDoc) {
-        return fullBody(classDoc, treeUtils);
+        return docComments.get(classDoc).getFullBody();
     }
 
     /**
@@ -229,29 +336,32 @@ public abstract class AbstractCollector implements Collector {
      */
     protected Collection<String> resolvePaths(String contextPath, EndpointMapping classMapping, EndpointMapping methodMapping) {
 
-        contextPath = (contextPath == null ? "" : contextPath);
-
         //Build all the paths based on the class level, plus the method extensions.
         LinkedHashSet<String> paths = new LinkedHashSet<>();
 
         if (isEmpty(classMapping.getPaths())) {
             for (String path : methodMapping.getPaths()) {
-                paths.add(fixPath(contextPath + path));
+                paths.add(internPath(fixPath(contextPath, path)));
             }
         } else if (isEmpty(methodMapping.getPaths())) {
             for (String path : classMapping.getPaths()) {
-                paths.add(fixPath(contextPath + path));
+                paths.add(internPath(fixPath(contextPath, path)));
             }
         } else {
             for (String defaultPath : classMapping.getPaths()) {
                 for (String path : methodMapping.getPaths()) {
-                    paths.add(fixPath(contextPath + defaultPath + path));
+                    paths.add(internPath(fixPath(contextPath, defaultPath, path)));
                 }
             }
         }
         return paths;
     }
 
+    private String internPath(String path) {
+        String canonical = pathCache.putIfAbsent(path, path);
+        return (canonical == null ? path : canonical);
+    }
+
     /**
      * Will use the method's mapped information if it is not empty, otherwise it will use the class mapping information
      * to retrieve all the https methods.
@@ -0,0 +1,37 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.collector;
+
+/**
+ * What an annotation means to a collector.
+ */
+public enum AnnotationRole {
+    CONTROLLER,
+    MAPPING,
+    HTTP_METHOD,
+    PATH,
+    CONSUMES,
+    PRODUCES,
+    PATH_VARIABLE,
+    QUERY_PARAM,
+    REQUEST_BODY,
+
+    //Any other annotation of a package handled by the collector.
+    PACKAGE_MEMBER,
+
+    //Not handled by the collector.
+    NONE
+}
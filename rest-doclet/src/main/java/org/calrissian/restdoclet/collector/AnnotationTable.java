@@ -0,0 +1,117 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.collector;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+
+/**
+ * Maps annotation types to the role they play for a collector.
+ *
+ * The qualified names are only compared the first time an annotation type is seen, afterwards the role is
+ * found with a single lookup on the annotation type element.  A table holds elements of the javac model, so it
+ * must not outlive a run.
+ */
+public class AnnotationTable {
+
+    private static final Binding NONE = new Binding(AnnotationRole.NONE, null);
+    private static final Binding PACKAGE_MEMBER = new Binding(AnnotationRole.PACKAGE_MEMBER, null);
+
+    private final Map<String, Binding> byName = new HashMap<>();
+    private final Collection<String> packages = new ArrayList<>();
+    private final Map<Element, Binding> resolved = new ConcurrentHashMap<>();
+
+    public AnnotationTable bind(String qualifiedName, AnnotationRole role) {
+        return bind(qualifiedName, role, null);
+    }
+
+    /**
+     * Binds the annotation to a role, the value is a constant attached to the annotation (e.g. the http method of
+     * a JAX-RS method annotation).
+     */
+    public AnnotationTable bind(String qualifiedName, AnnotationRole role, String value) {
+        byName.put(qualifiedName, new Binding(role, value));
+        return this;
+    }
+
+    /**
+     * Any annotation of the package which is not explicitly bound will have the {@link AnnotationRole#PACKAGE_MEMBER} role.
+     */
+    public AnnotationTable bindPackage(String packagePrefix) {
+        packages.add(packagePrefix);
+        return this;
+    }
+
+    public Binding lookup(AnnotationMirror annotation) {
+        return lookup(annotation.getAnnotationType().asElement());
+    }
+
+    public Binding lookup(Element annotationType) {
+        Binding binding = resolved.get(annotationType);
+        if (binding == null) {
+            binding = resolve(annotationType);
+            resolved.putIfAbsent(annotationType, binding);
+        }
+        return binding;
+    }
+
+    public AnnotationRole roleOf(AnnotationMirror annotation) {
+        return lookup(annotation).getRole();
+    }
+
+    private Binding resolve(Element annotationType) {
+        if (!(annotationType instanceof TypeElement)) {
+            return NONE;
+        }
+
+        String name = ((TypeElement) annotationType).getQualifiedName().toString();
+        Binding binding = byName.get(name);
+        if (binding != null) {
+            return binding;
+        }
+
+        for (String packagePrefix : packages) {
+            if (name.startsWith(packagePrefix)) {
+                return PACKAGE_MEMBER;
+            }
+        }
+        return NONE;
+    }
+
+    public static class Binding {
+        private final AnnotationRole role;
+        private final String value;
+
+        private Binding(AnnotationRole role, String value) {
+            this.role = role;
+            this.value = value;
+        }
+
+        public AnnotationRole getRole() {
+            return role;
+        }
+
+        public String getValue() {
+            return value;
+        }
+    }
+}
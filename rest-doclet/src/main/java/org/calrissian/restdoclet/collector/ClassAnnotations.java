@@ -0,0 +1,109 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.collector;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+
+import static org.calrissian.restdoclet.util.CommonUtils.getMethods;
+
+/**
+ * The annotation types found on a class and on the methods it declares, read once so each collector can decide
+ * whether it handles the class.
+ */
+public class ClassAnnotations {
+
+    private final TypeElement classDoc;
+    private final List<Element> classAnnotations;
+    private final List<Element> methodAnnotations;
+
+    private ClassAnnotations(TypeElement classDoc, List<Element> classAnnotations, List<Element> methodAnnotations) {
+        this.classDoc = classDoc;
+        this.classAnnotations = classAnnotations;
+        this.methodAnnotations = methodAnnotations;
+    }
+
+    public static ClassAnnotations read(TypeElement classDoc) {
+        List<Element> classAnnotations = new ArrayList<>();
+        for (AnnotationMirror annotation : classDoc.getAnnotationMirrors()) {
+            addType(classAnnotations, annotation);
+        }
+
+        List<Element> methodAnnotations = new ArrayList<>();
+        for (ExecutableElement methodDoc : getMethods(classDoc)) {
+            for (AnnotationMirror annotation : methodDoc.getAnnotationMirrors()) {
+                addType(methodAnnotations, annotation);
+            }
+        }
+        return new ClassAnnotations(classDoc, classAnnotations, methodAnnotations);
+    }
+
+    private static void addType(List<Element> types, AnnotationMirror annotation) {
+        Element type = annotation.getAnnotationType().asElement();
+        //Classes only carry a handful of distinct annotation types.
+        if (!types.contains(type)) {
+            types.add(type);
+        }
+    }
+
+    /**
+     * Checks if any annotation of the class has one of the given roles in the table.
+     */
+    public boolean onClass(AnnotationTable table, AnnotationRole... roles) {
+        return hasRole(classAnnotations, table, roles);
+    }
+
+    /**
+     * Checks if any annotation of the declared methods has one of the given roles in the table.
+     */
+    public boolean onMethods(AnnotationTable table, AnnotationRole... roles) {
+        return hasRole(methodAnnotations, table, roles);
+    }
+
+    private static boolean hasRole(List<Element> types, AnnotationTable table, AnnotationRole... roles) {
+        for (Element type : types) {
+            AnnotationRole role = table.lookup(type).getRole();
+            for (AnnotationRole expected : roles) {
+                if (role == expected) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    public TypeElement getClassDoc() {
+        return classDoc;
+    }
+
+    /**
+     * @return the types of the annotations on the class.
+     */
+    public List<Element> getClassAnnotations() {
+        return classAnnotations;
+    }
+
+    /**
+     * @return the types of the annotations on the methods declared by the class.
+     */
+    public List<Element> getMethodAnnotations() {
+        return methodAnnotations;
+    }
+}
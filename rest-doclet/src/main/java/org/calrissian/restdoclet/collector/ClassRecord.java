@@ -0,0 +1,67 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.collector;
+
+import java.util.List;
+
+/**
+ * Everything a collector reads from the javac model to build the descriptor of a class: the class mapping, the
+ * doc comment of the class and the templates of its methods and of the methods it inherits, with their
+ * mappings, parameters, doc comments and resolved types.  It is captured on the thread reading the model, the
+ * descriptor is then built from the record only, on any thread.
+ */
+class ClassRecord {
+
+    private final String contextPath;
+    private final EndpointMapping classMapping;
+    private final List<EndpointTemplate> templates;
+    private final String name;
+    private final String description;
+
+    ClassRecord(
+            String contextPath,
+            EndpointMapping classMapping,
+            List<EndpointTemplate> templates,
+            String name,
+            String description) {
+
+        this.contextPath = contextPath;
+        this.classMapping = classMapping;
+        this.templates = templates;
+        this.name = name;
+        this.description = description;
+    }
+
+    String getContextPath() {
+        return contextPath;
+    }
+
+    EndpointMapping getClassMapping() {
+        return classMapping;
+    }
+
+    List<EndpointTemplate> getTemplates() {
+        return templates;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    String getDescription() {
+        return description;
+    }
+}
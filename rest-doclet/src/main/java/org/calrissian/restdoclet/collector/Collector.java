@@ -24,5 +24,15 @@ public interface Collector {
 
     Collection<ClassDescriptor> getDescriptors(DocletEnvironment rootDoc);
 
+    /**
+     * Same as {@link #getDescriptors(DocletEnvironment)} but allows the descriptors to be built on several threads.
+     * The descriptors must be returned in the same order as the sequential version.
+     * @param rootDoc
+     * @param threads
+     * @return
+     */
+    default Collection<ClassDescriptor> getDescriptors(DocletEnvironment rootDoc, int threads) {
+        return getDescriptors(rootDoc);
+    }
 
 }
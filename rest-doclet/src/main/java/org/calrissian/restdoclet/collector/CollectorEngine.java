@@ -0,0 +1,337 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.collector;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import jdk.javadoc.doclet.DocletEnvironment;
+import org.calrissian.restdoclet.metrics.Events;
+import org.calrissian.restdoclet.metrics.RunMetrics;
+import org.calrissian.restdoclet.model.ClassDescriptor;
+import org.calrissian.restdoclet.writer.DescriptorSink;
+
+import static org.calrissian.restdoclet.util.CommonUtils.isEmpty;
+
+/**
+ * Walks the included elements once and hands each class to the collectors that claim its annotations.
+ *
+ * The descriptors are pushed to a {@link DescriptorSink} as soon as they are built, in element order, and in
+ * collector order for a class claimed by several collectors.  The order is the same whether the descriptors are
+ * built on one thread or on a pool, or loaded from a {@link DescriptorCache}.
+ */
+public class CollectorEngine {
+
+    private final List<? extends AbstractCollector> collectors;
+    private final int threads;
+    private final DescriptorCache cache;
+    private final RunMetrics metrics;
+
+    public CollectorEngine(List<? extends AbstractCollector> collectors, int threads) {
+        this(collectors, threads, null);
+    }
+
+    /**
+     * @param collectors
+     * @param threads
+     * @param cache if not null, the descriptors of the classes which did not change since the previous run are
+     *              loaded from this cache instead of being rebuilt.
+     */
+    public CollectorEngine(List<? extends AbstractCollector> collectors, int threads, DescriptorCache cache) {
+        this(collectors, threads, cache, RunMetrics.disabled());
+    }
+
+    /**
+     * @param collectors
+     * @param threads
+     * @param cache may be null.
+     * @param metrics measuring the work of each collector and counting the scanned classes and the emitted
+     *                endpoints.
+     */
+    public CollectorEngine(List<? extends AbstractCollector> collectors, int threads, DescriptorCache cache,
+                           RunMetrics metrics) {
+        this.collectors = collectors;
+        this.threads = threads;
+        this.cache = cache;
+        this.metrics = metrics;
+    }
+
+    public Collection<ClassDescriptor> collect(DocletEnvironment rootDoc) {
+        Collection<ClassDescriptor> classDescriptors = new ArrayList<>();
+        try {
+            collect(rootDoc, classDescriptors::add);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return classDescriptors;
+    }
+
+    /**
+     * Pushes the descriptors of the classes containing endpoints to the sink.  The sink is not closed.
+     * @param rootDoc
+     * @param sink
+     * @throws IOException if the sink or the cache fails.
+     */
+    public void collect(DocletEnvironment rootDoc, DescriptorSink sink) throws IOException {
+        try (Events.Span pass = Events.collectorPass(getCollectorNames(), threads)) {
+            if (threads <= 1) {
+                collectInline(rootDoc, sink, pass);
+            } else {
+                collectOnPool(rootDoc, sink, pass);
+            }
+        }
+    }
+
+    private void collectInline(DocletEnvironment rootDoc, DescriptorSink sink, Events.Span pass) throws IOException {
+        int classes = 0;
+        int endpoints = 0;
+        for (Element e : rootDoc.getIncludedElements()) {
+            List<Task> classTasks = claim(e);
+            if (classTasks.isEmpty()) {
+                continue;
+            }
+            if (!loadFromCache(classTasks)) {
+                for (Task task : classTasks) {
+                    task.descriptor = task.build();
+                }
+                storeInCache(classTasks);
+            }
+            classes++;
+            endpoints += emit(classTasks, sink);
+        }
+        pass.setClasses(classes);
+        pass.setEndpoints(endpoints);
+    }
+
+    private void collectOnPool(DocletEnvironment rootDoc, DescriptorSink sink, Events.Span pass) throws IOException {
+        //The javac model is not thread safe, every class is read into a record before going parallel and the
+        //pool only builds the descriptors from the records.
+        List<List<Task>> classes = new ArrayList<>();
+        for (Element e : rootDoc.getIncludedElements()) {
+            List<Task> classTasks = claim(e);
+            if (classTasks.isEmpty()) {
+                continue;
+            }
+            if (!loadFromCache(classTasks)) {
+                for (Task task : classTasks) {
+                    task.snapshot();
+                    task.pending = true;
+                }
+            }
+            classes.add(classTasks);
+        }
+        pass.setClasses(classes.size());
+
+        int endpoints = 0;
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            for (List<Task> classTasks : classes) {
+                for (Task task : classTasks) {
+                    if (task.pending) {
+                        task.future = pool.submit(task::build);
+                    }
+                }
+            }
+
+            //The classes are written in order while the following ones are still being built.
+            for (List<Task> classTasks : classes) {
+                boolean built = false;
+                for (Task task : classTasks) {
+                    if (task.pending) {
+                        task.descriptor = await(task.future);
+                        built = true;
+                    }
+                }
+                if (built) {
+                    storeInCache(classTasks);
+                }
+                endpoints += emit(classTasks, sink);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        pass.setEndpoints(endpoints);
+    }
+
+    private String getCollectorNames() {
+        StringBuilder names = new StringBuilder();
+        for (AbstractCollector collector : collectors) {
+            names.append(names.length() == 0 ? "" : ", ").append(collector.getClass().getSimpleName());
+        }
+        return names.toString();
+    }
+
+    /**
+     * @param e an included element.
+     * @return the tasks of the collectors which claim the element, empty if the element is not a class.
+     */
+    private List<Task> claim(Element e) {
+        List<Task> classTasks = new ArrayList<>();
+        if (e instanceof TypeElement) {
+            metrics.count(RunMetrics.CLASSES_SCANNED, 1);
+            ClassAnnotations annotations = ClassAnnotations.read((TypeElement) e);
+            for (int i = 0; i < collectors.size(); i++) {
+                if (collectors.get(i).claims(annotations)) {
+                    classTasks.add(new Task(i, annotations.getClassDoc()));
+                }
+            }
+        }
+        return classTasks;
+    }
+
+    /**
+     * Only the classes that contain endpoints are pushed to the sink.
+     * @return the number of endpoints pushed.
+     */
+    private int emit(List<Task> classTasks, DescriptorSink sink) throws IOException {
+        int endpoints = 0;
+        for (Task task : classTasks) {
+            if (task.descriptor != null && !isEmpty(task.descriptor.getEndpoints())) {
+                endpoints += task.descriptor.getEndpoints().size();
+                sink.accept(task.descriptor);
+            }
+        }
+        metrics.count(RunMetrics.ENDPOINTS_EMITTED, endpoints);
+        return endpoints;
+    }
+
+    /**
+     * Fills the descriptors of the tasks of a class from the cache.
+     * @param classTasks the tasks of a single class.
+     * @return true if every task was found in the cache.
+     */
+    private boolean loadFromCache(List<Task> classTasks) {
+        if (cache == null) {
+            return false;
+        }
+
+        Task first = classTasks.get(0);
+        first.fingerprint = cache.fingerprint(first.classDoc);
+        for (Task task : classTasks) {
+            task.fingerprint = first.fingerprint;
+        }
+
+        Map<String, ClassDescriptor> cached = cache.load(first.classDoc, first.fingerprint);
+        if (cached == null) {
+            return false;
+        }
+        for (Task task : classTasks) {
+            if (!cached.containsKey(task.getCollectorName())) {
+                return false;
+            }
+        }
+
+        for (Task task : classTasks) {
+            task.descriptor = cached.get(task.getCollectorName());
+        }
+        return true;
+    }
+
+    /**
+     * @param classTasks the tasks of a single class.
+     */
+    private void storeInCache(List<Task> classTasks) throws IOException {
+        if (cache == null) {
+            return;
+        }
+
+        Map<String, ClassDescriptor> descriptors = new LinkedHashMap<>();
+        for (Task task : classTasks) {
+            descriptors.put(task.getCollectorName(), task.descriptor);
+        }
+        cache.store(classTasks.get(0).classDoc, classTasks.get(0).fingerprint, descriptors);
+    }
+
+    private static ClassDescriptor await(Future<ClassDescriptor> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while collecting the class descriptors", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException("Unable to collect the class descriptors", e.getCause());
+        }
+    }
+
+    /**
+     * A class claimed by one of the collectors.
+     */
+    private class Task {
+        private final int collector;
+        private final TypeElement classDoc;
+        private final String className;
+        private String fingerprint;
+        private ClassRecord record;
+        private boolean pending;
+        private Future<ClassDescriptor> future;
+        private ClassDescriptor descriptor;
+
+        Task(int collector, TypeElement classDoc) {
+            this.collector = collector;
+            this.classDoc = classDoc;
+            this.className = classDoc.getQualifiedName().toString();
+        }
+
+        String getCollectorName() {
+            return collectors.get(collector).getClass().getName();
+        }
+
+        /**
+         * Reads the class into its record, on the thread owning the javac model.
+         */
+        @SuppressWarnings("try")
+        void snapshot() {
+            String name = getCollectorSimpleName();
+            try (RunMetrics.Timer timer = metrics.collector(name);
+                 Events.Span span = Events.descriptor(name, className, "snapshot")) {
+                record = collectors.get(collector).snapshot(classDoc);
+            }
+        }
+
+        /**
+         * Builds the descriptor from the record when the class was read ahead, from the javac model otherwise.
+         */
+        @SuppressWarnings("try")
+        ClassDescriptor build() {
+            String name = getCollectorSimpleName();
+            try (RunMetrics.Timer timer = metrics.collector(name);
+                 Events.Span span = Events.descriptor(name, className, "build")) {
+                AbstractCollector owner = collectors.get(collector);
+                ClassDescriptor descriptor = (pending ? owner.buildClassDescriptor(record) : owner.buildClassDescriptor(classDoc));
+                if (descriptor != null && descriptor.getEndpoints() != null) {
+                    span.setEndpoints(descriptor.getEndpoints().size());
+                }
+                return descriptor;
+            }
+        }
+
+        private String getCollectorSimpleName() {
+            return collectors.get(collector).getClass().getSimpleName();
+        }
+    }
+}
@@ -0,0 +1,419 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.collector;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.calrissian.restdoclet.model.*;
+import org.calrissian.restdoclet.util.TypeResolver;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.NoType;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+
+import static org.calrissian.restdoclet.util.CommonUtils.asTypeElement;
+import static org.calrissian.restdoclet.util.CommonUtils.getMethods;
+import static org.calrissian.restdoclet.util.CommonUtils.sha256;
+
+/**
+ * On disk cache of the class descriptors, used to only rebuild the descriptors of the classes which changed
+ * since the previous run.
+ *
+ * Each class gets its own file in the cache directory holding a fingerprint of the class and the descriptors
+ * produced by each collector.  The fingerprint covers the doc comments, annotations and signatures of the class,
+ * its methods and its super classes, and the properties of the models they use.  Types are stored as their
+ * resolved {@link TypeRef}, the properties of the models once per entry, apart from the descriptors.
+ */
+public class DescriptorCache {
+
+    //Changing the format or what goes into the fingerprint requires a new version.
+    private static final String CACHE_VERSION = "7";
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private final File directory;
+    private final Elements elementUtils;
+    private final TypeResolver types;
+
+    /**
+     * @param directory
+     * @param elementUtils
+     * @param types the resolver used by the collectors, the models are resolved once for both.
+     */
+    public DescriptorCache(File directory, Elements elementUtils, TypeResolver types) {
+        this.directory = directory;
+        this.elementUtils = elementUtils;
+        this.types = types;
+    }
+
+    /**
+     * Computes the fingerprint of a class, which changes whenever anything used to build its descriptors changes.
+     * @param classDoc
+     * @return
+     */
+    public String fingerprint(TypeElement classDoc) {
+        StringBuilder content = new StringBuilder(CACHE_VERSION);
+        Deque<TypeRef> usedTypes = new ArrayDeque<>();
+
+        TypeElement current = classDoc;
+        while (current != null) {
+            content.append('\n').append(current.getQualifiedName());
+            appendElement(content, current);
+            for (ExecutableElement method : getMethods(current)) {
+                content.append('\n').append(method).append(':').append(method.getReturnType());
+                appendElement(content, method);
+                usedTypes.add(types.resolve(method.getReturnType()));
+                for (VariableElement parameter : method.getParameters()) {
+                    content.append('\n').append(parameter.getSimpleName()).append(':').append(parameter.asType());
+                    appendElement(content, parameter);
+                    usedTypes.add(types.resolve(parameter.asType()));
+                }
+            }
+
+            TypeMirror superClass = current.getSuperclass();
+            content.append("\nextends ").append(superClass);
+            current = (superClass == null || superClass instanceof NoType ? null : asTypeElement(superClass));
+        }
+
+        appendModels(content, usedTypes);
+
+        return sha256(content.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Appends the properties of every model and the constants of every enum reachable from the types, as a
+     * property, an element or the type itself, each type once.  A property is appended with its whole type, down
+     * to the elements of its containers, so changing {@code List<String>} to {@code List<Integer>} changes the
+     * fingerprint.
+     */
+    static void appendModels(StringBuilder content, Deque<TypeRef> usedTypes) {
+        Set<String> visited = new HashSet<>();
+        Set<String> visitedEnums = new HashSet<>();
+        while (!usedTypes.isEmpty()) {
+            TypeRef type = usedTypes.poll();
+            if (type.getElementType() != null) {
+                usedTypes.add(type.getElementType());
+            }
+            if (!type.getEnumConstants().isEmpty() && visitedEnums.add(type.getQualifiedName())) {
+                content.append("\nenum ").append(type.getQualifiedName()).append(':')
+                        .append(String.join(",", type.getEnumConstants()));
+            }
+            if (type.isModel() && visited.add(type.getQualifiedName())) {
+                content.append("\nmodel ").append(type.getQualifiedName());
+                for (Map.Entry<String, TypeRef> property : type.getProperties().entrySet()) {
+                    content.append('\n').append(property.getKey()).append(':');
+                    appendType(content, property.getValue());
+                    usedTypes.add(property.getValue());
+                }
+            }
+        }
+    }
+
+    /**
+     * Appends the kind and name of a type, then of its elements for a container.
+     */
+    private static void appendType(StringBuilder content, TypeRef type) {
+        for (TypeRef level = type; level != null; level = level.getElementType()) {
+            if (level != type) {
+                content.append(" of ");
+            }
+            content.append(level.getKind()).append(' ').append(level.getQualifiedName());
+        }
+    }
+
+    private void appendElement(StringBuilder content, Element e) {
+        for (AnnotationMirror annotation : e.getAnnotationMirrors()) {
+            content.append('\n').append(annotation);
+        }
+        String comment = elementUtils.getDocComment(e);
+        if (comment != null) {
+            content.append("\n/**").append(comment).append("*/");
+        }
+    }
+
+    /**
+     * Loads the descriptors stored for the class, keyed by collector name.  A collector which claimed the class
+     * without producing any endpoint is mapped to null.
+     * @param classDoc
+     * @param fingerprint
+     * @return null if nothing is cached for this fingerprint.
+     */
+    public Map<String, ClassDescriptor> load(TypeElement classDoc, String fingerprint) {
+        File file = getFile(classDoc);
+        if (!file.isFile()) {
+            return null;
+        }
+
+        try {
+            JsonNode root = mapper.readTree(file);
+            if (!fingerprint.equals(root.path("fingerprint").asText())) {
+                return null;
+            }
+
+            Models models = new Models();
+            Map<String, ClassDescriptor> descriptors = new LinkedHashMap<>();
+            JsonNode collectors = root.path("collectors");
+            for (Iterator<String> it = collectors.fieldNames(); it.hasNext();) {
+                String collector = it.next();
+                descriptors.put(collector, readDescriptor(collectors.get(collector), models));
+            }
+
+            //The properties may refer to models not met yet, which are read in turn.
+            JsonNode modelsNode = root.path("models");
+            while (!models.pending.isEmpty()) {
+                TypeRef model = models.pending.poll();
+                JsonNode properties = modelsNode.get(model.getQualifiedName());
+                if (properties == null) {
+                    return null;
+                }
+                Map<String, TypeRef> target = models.properties.get(model.getQualifiedName());
+                for (Iterator<String> it = properties.fieldNames(); it.hasNext();) {
+                    String property = it.next();
+                    target.put(property, readType(properties.get(property), models));
+                }
+            }
+            return descriptors;
+        } catch (IOException | RuntimeException e) {
+            //A corrupted entry is simply rebuilt.
+            return null;
+        }
+    }
+
+    /**
+     * Stores the descriptors produced by each collector for the class.
+     * @param classDoc
+     * @param fingerprint
+     * @param descriptors
+     * @throws IOException
+     */
+    public void store(TypeElement classDoc, String fingerprint, Map<String, ClassDescriptor> descriptors) throws IOException {
+        ObjectNode root = mapper.createObjectNode();
+        root.put("fingerprint", fingerprint);
+        ObjectNode collectors = root.putObject("collectors");
+        Models models = new Models();
+        for (Map.Entry<String, ClassDescriptor> entry : descriptors.entrySet()) {
+            collectors.set(entry.getKey(), writeDescriptor(entry.getValue(), models));
+        }
+
+        //Writing the properties may meet other models, which are written in turn.
+        ObjectNode modelsNode = root.putObject("models");
+        while (!models.pending.isEmpty()) {
+            TypeRef model = models.pending.poll();
+            ObjectNode properties = modelsNode.putObject(model.getQualifiedName());
+            for (Map.Entry<String, TypeRef> property : model.getProperties().entrySet()) {
+                properties.set(property.getKey(), writeType(property.getValue(), models));
+            }
+        }
+
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Unable to create directory: " + directory);
+        }
+        mapper.writeValue(getFile(classDoc), root);
+    }
+
+    private File getFile(TypeElement classDoc) {
+        return new File(directory, elementUtils.getBinaryName(classDoc) + ".json");
+    }
+
+    private JsonNode writeDescriptor(ClassDescriptor descriptor, Models models) {
+        if (descriptor == null) {
+            return mapper.nullNode();
+        }
+
+        ObjectNode node = mapper.createObjectNode();
+        node.put("name", descriptor.getName());
+        node.put("contextPath", descriptor.getContextPath());
+        node.put("description", descriptor.getDescription());
+        ArrayNode groups = node.putArray("endpointGroups");
+        for (EndpointGroup group : descriptor.getEndpointGroups()) {
+            ObjectNode groupNode = groups.addObject();
+            writeStrings(groupNode.putArray("paths"), group.getPaths());
+            writeStrings(groupNode.putArray("httpMethods"), group.getHttpMethods());
+            ArrayNode queryParams = groupNode.putArray("queryParams");
+            for (QueryParam queryParam : group.getQueryParams()) {
+                queryParams.addObject()
+                        .put("name", queryParam.getName())
+                        .put("required", queryParam.isRequired())
+                        .put("description", queryParam.getDescription())
+                        .set("type", writeType(queryParam.getType(), models));
+            }
+            ArrayNode pathVars = groupNode.putArray("pathVars");
+            for (PathVar pathVar : group.getPathVars()) {
+                pathVars.addObject()
+                        .put("name", pathVar.getName())
+                        .put("description", pathVar.getDescription())
+                        .set("type", writeType(pathVar.getType(), models));
+            }
+            RequestBody requestBody = group.getRequestBody();
+            if (requestBody != null) {
+                groupNode.putObject("requestBody")
+                        .put("name", requestBody.getName())
+                        .put("description", requestBody.getDescription())
+                        .set("type", writeType(requestBody.getType(), models));
+            }
+            writeStrings(groupNode.putArray("consumes"), group.getConsumes());
+            writeStrings(groupNode.putArray("produces"), group.getProduces());
+            groupNode.put("shortDescription", group.getShortDescription());
+            groupNode.put("description", group.getDescription());
+            groupNode.set("type", writeType(group.getType(), models));
+        }
+        return node;
+    }
+
+    private ClassDescriptor readDescriptor(JsonNode node, Models models) {
+        if (node == null || node.isNull()) {
+            return null;
+        }
+
+        Collection<EndpointGroup> groups = new ArrayList<>();
+        for (JsonNode groupNode : node.path("endpointGroups")) {
+            Collection<QueryParam> queryParams = new ArrayList<>();
+            for (JsonNode param : groupNode.path("queryParams")) {
+                queryParams.add(new QueryParam(text(param, "name"), param.path("required").asBoolean(),
+                        text(param, "description"), readType(param.get("type"), models)));
+            }
+            Collection<PathVar> pathVars = new ArrayList<>();
+            for (JsonNode param : groupNode.path("pathVars")) {
+                pathVars.add(new PathVar(text(param, "name"), text(param, "description"), readType(param.get("type"), models)));
+            }
+            RequestBody requestBody = null;
+            JsonNode body = groupNode.get("requestBody");
+            if (body != null && !body.isNull()) {
+                requestBody = new RequestBody(text(body, "name"), text(body, "description"), readType(body.get("type"), models));
+            }
+
+            groups.add(new EndpointGroup(
+                    readStrings(groupNode.path("paths")),
+                    readStrings(groupNode.path("httpMethods")),
+                    queryParams,
+                    pathVars,
+                    requestBody,
+                    readStrings(groupNode.path("consumes")),
+                    readStrings(groupNode.path("produces")),
+                    text(groupNode, "shortDescription"),
+                    text(groupNode, "description"),
+                    readType(groupNode.get("type"), models)
+            ));
+        }
+
+        return new ClassDescriptor(text(node, "name"), text(node, "contextPath"), groups, text(node, "description"));
+    }
+
+    private static void writeStrings(ArrayNode array, Collection<String> values) {
+        for (String value : values) {
+            array.add(value);
+        }
+    }
+
+    private static Collection<String> readStrings(JsonNode array) {
+        Collection<String> values = new LinkedHashSet<>();
+        for (JsonNode value : array) {
+            values.add(value.asText());
+        }
+        return values;
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return (value == null || value.isNull() ? null : value.asText());
+    }
+
+    private static JsonNode writeType(TypeRef type, Models models) {
+        if (type == null) {
+            return mapper.nullNode();
+        }
+
+        ObjectNode node = mapper.createObjectNode();
+        node.put("name", type.getQualifiedName());
+        node.put("kind", type.getKind().name());
+        if (type.getElementType() != null) {
+            node.set("elementType", writeType(type.getElementType(), models));
+        }
+        if (!type.getEnumConstants().isEmpty()) {
+            ArrayNode constants = node.putArray("enumConstants");
+            for (String constant : type.getEnumConstants()) {
+                constants.add(constant);
+            }
+        }
+        if (type.isModel()) {
+            node.put("model", true);
+            if (models.byName.putIfAbsent(type.getQualifiedName(), type) == null) {
+                models.pending.add(type);
+            }
+        }
+        return node;
+    }
+
+    private static TypeRef readType(JsonNode node, Models models) {
+        if (node == null || node.isNull()) {
+            return null;
+        }
+
+        if (node.path("model").asBoolean()) {
+            String name = text(node, "name");
+            TypeRef model = models.byName.get(name);
+            if (model == null) {
+                Map<String, TypeRef> properties = new LinkedHashMap<>();
+                model = new TypeRef(name, TypeRef.Kind.valueOf(text(node, "kind")), null, null, properties);
+                models.byName.put(name, model);
+                models.properties.put(name, properties);
+                models.pending.add(model);
+            }
+            return model;
+        }
+
+        List<String> constants = new ArrayList<>();
+        for (JsonNode constant : node.path("enumConstants")) {
+            constants.add(constant.asText());
+        }
+        return new TypeRef(
+                text(node, "name"),
+                TypeRef.Kind.valueOf(text(node, "kind")),
+                readType(node.get("elementType"), models),
+                constants);
+    }
+
+    /**
+     * The models met while writing or reading a cache entry, each one instance per name.  The models whose
+     * properties are left to write or read are pending.
+     */
+    private static class Models {
+        private final Map<String, TypeRef> byName = new HashMap<>();
+        private final Map<String, Map<String, TypeRef>> properties = new HashMap<>();
+        private final Deque<TypeRef> pending = new ArrayDeque<>();
+    }
+}
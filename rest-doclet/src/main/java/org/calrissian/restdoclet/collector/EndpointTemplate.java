@@ -0,0 +1,84 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.collector;
+
+import java.util.Collection;
+import org.calrissian.restdoclet.model.PathVar;
+import org.calrissian.restdoclet.model.QueryParam;
+import org.calrissian.restdoclet.model.RequestBody;
+import org.calrissian.restdoclet.model.TypeRef;
+
+/**
+ * The parts of an endpoint which only depend on the method declaring it.  The context path and the class
+ * mapping of the class exposing the method are applied afterwards, so the template of a method inherited by
+ * several controllers is only built once.
+ */
+class EndpointTemplate {
+
+    private final EndpointMapping methodMapping;
+    private final Collection<PathVar> pathVars;
+    private final Collection<QueryParam> queryParams;
+    private final RequestBody requestBody;
+    private final String firstSentence;
+    private final String body;
+    private final TypeRef type;
+
+    EndpointTemplate(
+            EndpointMapping methodMapping,
+            Collection<PathVar> pathVars,
+            Collection<QueryParam> queryParams,
+            RequestBody requestBody,
+            String firstSentence,
+            String body,
+            TypeRef type) {
+
+        this.methodMapping = methodMapping;
+        this.pathVars = pathVars;
+        this.queryParams = queryParams;
+        this.requestBody = requestBody;
+        this.firstSentence = firstSentence;
+        this.body = body;
+        this.type = type;
+    }
+
+    EndpointMapping getMethodMapping() {
+        return methodMapping;
+    }
+
+    Collection<PathVar> getPathVars() {
+        return pathVars;
+    }
+
+    Collection<QueryParam> getQueryParams() {
+        return queryParams;
+    }
+
+    RequestBody getRequestBody() {
+        return requestBody;
+    }
+
+    String getFirstSentence() {
+        return firstSentence;
+    }
+
+    String getBody() {
+        return body;
+    }
+
+    TypeRef getType() {
+        return type;
+    }
+}
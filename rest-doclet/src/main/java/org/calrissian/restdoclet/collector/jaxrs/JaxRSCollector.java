@@ -19,10 +19,14 @@ import com.sun.source.doctree.DocTree;
 import com.sun.source.doctree.ParamTree;
 import com.sun.source.util.DocTrees;
 import org.calrissian.restdoclet.collector.AbstractCollector;
+import org.calrissian.restdoclet.collector.AnnotationTable;
+import org.calrissian.restdoclet.collector.ClassAnnotations;
 import org.calrissian.restdoclet.collector.EndpointMapping;
 import org.calrissian.restdoclet.model.PathVar;
 import org.calrissian.restdoclet.model.QueryParam;
 import org.calrissian.restdoclet.model.RequestBody;
+import org.calrissian.restdoclet.util.DocCommentCache;
+import org.calrissian.restdoclet.util.TypeResolver;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -35,7 +39,7 @@ import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.element.VariableElement;
 
-import static org.calrissian.restdoclet.util.AnnotationUtils.getAnnotationName;
+import static org.calrissian.restdoclet.collector.AnnotationRole.*;
 import static org.calrissian.restdoclet.util.AnnotationUtils.getElementValue;
 import static org.calrissian.restdoclet.util.TagUtils.*;
 import static org.calrissian.restdoclet.util.CommonUtils.*;
@@ -58,28 +62,37 @@ public class JaxRSCollector extends AbstractCollector {
     protected static final String PATHVAR_ANNOTATION = ANNOTATION_PACKAGE + "PathParam";
     protected static final String PARAM_ANNOTATION = ANNOTATION_PACKAGE + "QueryParam";
 
+    private final AnnotationTable annotationTable = new AnnotationTable()
+            .bind(PATH_ANNOTATION, PATH)
+            .bind(GET_ANNOTATION, HTTP_METHOD, "GET")
+            .bind(POST_ANNOTATION, HTTP_METHOD, "POST")
+            .bind(PUT_ANNOTATION, HTTP_METHOD, "PUT")
+            .bind(DELETE_ANNOTATION, HTTP_METHOD, "DELETE")
+            .bind(HEAD_ANNOTATION, HTTP_METHOD, "HEAD")
+            .bind(CONSUMES_ANNOTATION, CONSUMES)
+            .bind(PRODUCES_ANNOTATION, PRODUCES)
+            .bind(PATHVAR_ANNOTATION, PATH_VARIABLE)
+            .bind(PARAM_ANNOTATION, QUERY_PARAM)
+            .bindPackage(ANNOTATION_PACKAGE);
+
     public JaxRSCollector(DocTrees treeUtils) {
         super(treeUtils);
     }
 
-    @Override
-    protected boolean shouldIgnoreClass(TypeElement classDoc) {
+    public JaxRSCollector(DocTrees treeUtils, DocCommentCache docComments) {
+        super(treeUtils, docComments);
+    }
 
-        //Look for any JAXRS annotations in the class or the methods.  If found then don't ignore this class.
-        for (AnnotationMirror classAnnotation : classDoc.getAnnotationMirrors()) {
-            String annotationName = getAnnotationName(classAnnotation);
-            if (annotationName != null && annotationName.startsWith(ANNOTATION_PACKAGE)) {
-                return false;
-            }
-        }
+    public JaxRSCollector(DocTrees treeUtils, DocCommentCache docComments, TypeResolver types) {
+        super(treeUtils, docComments, types);
+    }
 
-        for (ExecutableElement methodDoc : getMethods(classDoc)) {
-            if (!shouldIgnoreMethod(methodDoc)) {
-                return false;
-            }
-        }
+    @Override
+    protected boolean claims(ClassAnnotations annotations) {
 
-        return true;
+        //Look for any JAXRS annotations in the class or the methods.  If found then don't ignore this class.
+        return annotations.onClass(annotationTable, PATH, HTTP_METHOD, CONSUMES, PRODUCES, PATH_VARIABLE, QUERY_PARAM, PACKAGE_MEMBER) ||
+                annotations.onMethods(annotationTable, HTTP_METHOD);
     }
 
     @Override
@@ -87,12 +100,7 @@ public class JaxRSCollector extends AbstractCollector {
 
         //Jax RS methods need a method annotation inorder to be used, so simply look for them.
         for (AnnotationMirror methodAnnotation : methodDoc.getAnnotationMirrors()) {
-            String annotationName = getAnnotationName(methodAnnotation);
-            if (GET_ANNOTATION.equals(annotationName) ||
-                    POST_ANNOTATION.equals(annotationName) ||
-                    PUT_ANNOTATION.equals(annotationName) ||
-                    DELETE_ANNOTATION.equals(annotationName) ||
-                    HEAD_ANNOTATION.equals(annotationName)) {
+            if (annotationTable.roleOf(methodAnnotation) == HTTP_METHOD) {
                 return false;
             }
         }
@@ -109,22 +117,22 @@ public class JaxRSCollector extends AbstractCollector {
         //Look for a request mapping annotation
         for (AnnotationMirror annotation : doc.getAnnotationMirrors()) {
 
-            String annotationName = getAnnotationName(annotation);
-
-            if (GET_ANNOTATION.equals(annotationName) ||
-                    POST_ANNOTATION.equals(annotationName) ||
-                    PUT_ANNOTATION.equals(annotationName) ||
-                    DELETE_ANNOTATION.equals(annotationName) ||
-                    HEAD_ANNOTATION.equals(annotationName)) {
-
-                httpMethods.add(annotationName.replace(ANNOTATION_PACKAGE, ""));
-
-            } else if (PATH_ANNOTATION.equals(annotationName)) {
-                paths.addAll(getElementValue(annotation, "value"));
-            } else if (CONSUMES_ANNOTATION.equals(annotationName)) {
-                consumes.addAll(getElementValue(annotation, "value"));
-            } else if (PRODUCES_ANNOTATION.equals(annotationName)) {
-                produces.addAll(getElementValue(annotation, "value"));
+            AnnotationTable.Binding binding = annotationTable.lookup(annotation);
+            switch (binding.getRole()) {
+                case HTTP_METHOD:
+                    httpMethods.add(binding.getValue());
+                    break;
+                case PATH:
+                    paths.addAll(getElementValue(annotation, "value"));
+                    break;
+                case CONSUMES:
+                    consumes.addAll(getElementValue(annotation, "value"));
+                    break;
+                case PRODUCES:
+                    produces.addAll(getElementValue(annotation, "value"));
+                    break;
+                default:
+                    break;
             }
         }
 
@@ -140,12 +148,12 @@ public class JaxRSCollector extends AbstractCollector {
     protected Collection<PathVar> generatePathVars(ExecutableElement methodDoc) {
         Collection<PathVar> retVal = new ArrayList<>();
 
-        List<String> tags = getTags(methodDoc, PATHVAR_TAG, treeUtils);
-        Map<String, List<String>> paramTags = getParams(methodDoc, treeUtils);
+        List<String> tags = docComments.get(methodDoc).getTags(PATHVAR_TAG);
+        Map<String, List<String>> paramTags = docComments.get(methodDoc).getParams();
 
         for (VariableElement parameter : methodDoc.getParameters()) {
             for (AnnotationMirror annotation : parameter.getAnnotationMirrors()) {
-                if (getAnnotationName(annotation).equals(PATHVAR_ANNOTATION)) {
+                if (annotationTable.roleOf(annotation) == PATH_VARIABLE) {
                     String name = parameter.getSimpleName().toString();
                     List<String> values = getElementValue(annotation, "value");
                     if (!values.isEmpty())
@@ -163,7 +171,7 @@ public class JaxRSCollector extends AbstractCollector {
                         text = "";
                     }
 
-                    retVal.add(new PathVar(name, text, parameter.asType()));
+                    retVal.add(new PathVar(name, text, types.resolve(parameter.asType())));
                 }
             }
         }
@@ -175,12 +183,12 @@ public class JaxRSCollector extends AbstractCollector {
     protected Collection<QueryParam> generateQueryParams(ExecutableElement methodDoc) {
         Collection<QueryParam> retVal = new ArrayList<> ();
 
-        List<String> tags = getTags(methodDoc, QUERYPARAM_TAG, treeUtils);
-        Map<String, List<String>> paramTags = getParams(methodDoc, treeUtils);
+        List<String> tags = docComments.get(methodDoc).getTags(QUERYPARAM_TAG);
+        Map<String, List<String>> paramTags = docComments.get(methodDoc).getParams();
 
         for (VariableElement parameter : methodDoc.getParameters()) {
             for (AnnotationMirror annotation : parameter.getAnnotationMirrors()) {
-                if (getAnnotationName(annotation).equals(PARAM_ANNOTATION)) {
+                if (annotationTable.roleOf(annotation) == QUERY_PARAM) {
                     String name = parameter.getSimpleName().toString();
                     List<String> values = getElementValue(annotation, "value");
                     if (!values.isEmpty())
@@ -198,7 +206,7 @@ public class JaxRSCollector extends AbstractCollector {
                         text = "";
                     }
 
-                    retVal.add(new QueryParam(name, false, text, parameter.asType()));
+                    retVal.add(new QueryParam(name, false, text, types.resolve(parameter.asType())));
                 }
             }
         }
@@ -207,8 +215,8 @@ public class JaxRSCollector extends AbstractCollector {
 
     @Override
     protected RequestBody generateRequestBody(ExecutableElement methodDoc) {
-        List<String> tags = getTags(methodDoc, REQUESTBODY_TAG, treeUtils);
-        Map<String, List<String>> paramTags = getParams(methodDoc, treeUtils);
+        List<String> tags = docComments.get(methodDoc).getTags(REQUESTBODY_TAG);
+        Map<String, List<String>> paramTags = docComments.get(methodDoc).getParams();
 
         for (VariableElement parameter : methodDoc.getParameters()) {
 
@@ -227,7 +235,7 @@ public class JaxRSCollector extends AbstractCollector {
                     text = "";
                 }
 
-                return new RequestBody(parameter.getSimpleName().toString(), text, parameter.asType());
+                return new RequestBody(parameter.getSimpleName().toString(), text, types.resolve(parameter.asType()));
             }
         }
         return null;
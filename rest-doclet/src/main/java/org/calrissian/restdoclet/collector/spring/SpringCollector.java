@@ -18,22 +18,26 @@ package org.calrissian.restdoclet.collector.spring;
 
 import com.sun.source.util.DocTrees;
 import org.calrissian.restdoclet.collector.AbstractCollector;
+import org.calrissian.restdoclet.collector.AnnotationTable;
+import org.calrissian.restdoclet.collector.ClassAnnotations;
 import org.calrissian.restdoclet.collector.EndpointMapping;
 import org.calrissian.restdoclet.model.PathVar;
 import org.calrissian.restdoclet.model.QueryParam;
 import org.calrissian.restdoclet.model.RequestBody;
+import org.calrissian.restdoclet.util.DocCommentCache;
+import org.calrissian.restdoclet.util.TypeResolver;
 
 import java.util.*;
 
 import static java.lang.Boolean.FALSE;
 import static java.lang.Boolean.TRUE;
 import static java.util.Arrays.asList;
+import static org.calrissian.restdoclet.collector.AnnotationRole.*;
 import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.element.VariableElement;
-import static org.calrissian.restdoclet.util.AnnotationUtils.getAnnotationName;
 import static org.calrissian.restdoclet.util.AnnotationUtils.getElementValue;
 import static org.calrissian.restdoclet.util.CommonUtils.firstNonEmpty;
 import static org.calrissian.restdoclet.util.CommonUtils.isEmpty;
@@ -48,27 +52,37 @@ public class SpringCollector extends AbstractCollector {
     protected static final String PARAM_ANNOTATION = "org.springframework.web.bind.annotation.RequestParam";
     protected static final String REQUESTBODY_ANNOTATION = "org.springframework.web.bind.annotation.RequestBody";
 
+    private final AnnotationTable annotationTable = new AnnotationTable()
+            .bind(CONTROLLER_ANNOTATION.get(0), CONTROLLER)
+            .bind(CONTROLLER_ANNOTATION.get(1), CONTROLLER)
+            .bind(MAPPING_ANNOTATION, MAPPING)
+            .bind(PATHVAR_ANNOTATION, PATH_VARIABLE)
+            .bind(PARAM_ANNOTATION, QUERY_PARAM)
+            .bind(REQUESTBODY_ANNOTATION, REQUEST_BODY);
+
     public SpringCollector(DocTrees treeUtils) {
         super(treeUtils);
     }
+
+    public SpringCollector(DocTrees treeUtils, DocCommentCache docComments) {
+        super(treeUtils, docComments);
+    }
+
+    public SpringCollector(DocTrees treeUtils, DocCommentCache docComments, TypeResolver types) {
+        super(treeUtils, docComments, types);
+    }
     
     @Override
-    protected boolean shouldIgnoreClass(TypeElement classDoc) {
+    protected boolean claims(ClassAnnotations annotations) {
         //If found a controller annotation then don't ignore this class.
-        for (AnnotationMirror classAnnotation : classDoc.getAnnotationMirrors()) {
-            if (CONTROLLER_ANNOTATION.contains(getAnnotationName(classAnnotation))) {
-                return false;
-            }
-        }
-        //If not found then ignore this class.
-        return true;
+        return annotations.onClass(annotationTable, CONTROLLER);
     }
 
     @Override
     protected boolean shouldIgnoreMethod(ExecutableElement methodDoc) {
         //If found a mapping annotation then don't ignore this class.
         for (AnnotationMirror classAnnotation : methodDoc.getAnnotationMirrors())
-            if (MAPPING_ANNOTATION.equals(getAnnotationName(classAnnotation)))
+            if (annotationTable.roleOf(classAnnotation) == MAPPING)
                 return false;
 
         //If not found then ignore this class.
@@ -80,7 +94,7 @@ public class SpringCollector extends AbstractCollector {
         //Look for a request mapping annotation
         for (AnnotationMirror annotation : doc.getAnnotationMirrors()) {
             //If found then extract the value (paths) and the methods.
-            if (MAPPING_ANNOTATION.equals(getAnnotationName(annotation))) {
+            if (annotationTable.roleOf(annotation) == MAPPING) {
 
                 //Get http methods from annotation
                 Collection<String> httpMethods = new LinkedHashSet<>();
@@ -110,12 +124,12 @@ public class SpringCollector extends AbstractCollector {
     protected Collection<PathVar> generatePathVars(ExecutableElement methodDoc) {
         Collection<PathVar> retVal = new ArrayList<>();
 
-        List<String> tags = getTags(methodDoc, PATHVAR_TAG, treeUtils);
-        Map<String, List<String>> paramTags = getParams(methodDoc, treeUtils);
+        List<String> tags = docComments.get(methodDoc).getTags(PATHVAR_TAG);
+        Map<String, List<String>> paramTags = docComments.get(methodDoc).getParams();
 
         for (VariableElement parameter : methodDoc.getParameters()) {
             for (AnnotationMirror annotation : parameter.getAnnotationMirrors()) {
-                if (getAnnotationName(annotation).equals(PATHVAR_ANNOTATION)) {
+                if (annotationTable.roleOf(annotation) == PATH_VARIABLE) {
                     String name = parameter.getSimpleName().toString();
                     Collection<String> values = getElementValue(annotation, "value");
                     if (!values.isEmpty()) {
@@ -133,7 +147,7 @@ public class SpringCollector extends AbstractCollector {
                     if (text == null) {
                         text = "";
                     }
-                    retVal.add(new PathVar(name, text, parameter.asType()));
+                    retVal.add(new PathVar(name, text, types.resolve(parameter.asType())));
                 }
             }
         }
@@ -145,12 +159,12 @@ public class SpringCollector extends AbstractCollector {
     protected Collection<QueryParam> generateQueryParams(ExecutableElement methodDoc) {
         Collection<QueryParam> retVal = new ArrayList<> ();
 
-        List<String> tags = getTags(methodDoc, QUERYPARAM_TAG, treeUtils);
-        Map<String, List<String>> paramTags = getParams(methodDoc, treeUtils);
+        List<String> tags = docComments.get(methodDoc).getTags(QUERYPARAM_TAG);
+        Map<String, List<String>> paramTags = docComments.get(methodDoc).getParams();
 
         for (VariableElement parameter : methodDoc.getParameters()) {
             for (AnnotationMirror annotation : parameter.getAnnotationMirrors()) {
-                if (getAnnotationName(annotation).equals(PARAM_ANNOTATION)) {
+                if (annotationTable.roleOf(annotation) == QUERY_PARAM) {
                     String name = parameter.getSimpleName().toString();
                     List<String> values = getElementValue(annotation, "value");
                     if (!values.isEmpty())
@@ -183,7 +197,7 @@ public class SpringCollector extends AbstractCollector {
                         text = "";
                     }
 
-                    retVal.add(new QueryParam(name, required, text, parameter.asType()));
+                    retVal.add(new QueryParam(name, required, text, types.resolve(parameter.asType())));
                 }
             }
         }
@@ -193,12 +207,12 @@ public class SpringCollector extends AbstractCollector {
     @Override
     protected RequestBody generateRequestBody(ExecutableElement methodDoc) {
 
-        List<String> tags = getTags(methodDoc, REQUESTBODY_TAG, treeUtils);
-        Map<String, List<String>> paramTags = getParams(methodDoc, treeUtils);
+        List<String> tags = docComments.get(methodDoc).getTags(REQUESTBODY_TAG);
+        Map<String, List<String>> paramTags = docComments.get(methodDoc).getParams();
 
         for (VariableElement parameter : methodDoc.getParameters()) {
             for (AnnotationMirror annotation : parameter.getAnnotationMirrors()) {
-                if (getAnnotationName(annotation).equals(REQUESTBODY_ANNOTATION)) {
+                if (annotationTable.roleOf(annotation) == REQUEST_BODY) {
 
                     //first check for special tag, then check regular param tag, finally default to empty string
                     String text = (isEmpty(tags) ? null : tags.get(0));
@@ -212,7 +226,7 @@ public class SpringCollector extends AbstractCollector {
                         text = "";
                     }
 
-                    return new RequestBody(parameter.getSimpleName().toString(), text, parameter.asType());
+                    return new RequestBody(parameter.getSimpleName().toString(), text, types.resolve(parameter.asType()));
                 }
             }
         }
@@ -0,0 +1,36 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.metrics;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("org.calrissian.restdoclet.Descriptor")
+@Label("Class Descriptor")
+@Description("A collector reading a class, or building its descriptor")
+class DescriptorEvent extends RestDocletEvent {
+
+    @Label("Collector")
+    String collector;
+
+    @Label("Stage")
+    @Description("snapshot when the javac model is read ahead of a parallel build, build otherwise")
+    String stage;
+
+    @Label("Endpoints")
+    int endpoints;
+}
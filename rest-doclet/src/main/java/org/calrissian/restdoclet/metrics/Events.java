@@ -0,0 +1,233 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.metrics;
+
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+
+/**
+ * Records the work of the doclet as custom events in a flight recording, when one is running with the events
+ * enabled, such as with -J-XX:StartFlightRecording.  Each method starts an event and returns the {@link Span}
+ * to close once the work is done.  The events are only created when enabled, and nothing is recorded when the
+ * jdk.jfr module is not available.
+ * <p>
+ * The class being built by a collector is kept per thread, so the comments parsed and the types resolved while
+ * building a descriptor are recorded with the controller they were needed for.
+ */
+public final class Events {
+
+    private static final boolean AVAILABLE = isAvailable();
+    private static final ThreadLocal<String> CURRENT_CLASS = new ThreadLocal<>();
+
+    private Events() {
+    }
+
+    /**
+     * A pass of the collectors over the included elements.
+     * @param collectors the names of the collectors.
+     * @param threads
+     * @return the span, whose counts are set once the pass is done.
+     */
+    public static Span collectorPass(String collectors, int threads) {
+        return AVAILABLE ? Recorder.collectorPass(collectors, threads) : Span.NONE;
+    }
+
+    /**
+     * A collector reading a class, or building its descriptor.  The class is the current class of the thread
+     * until the span is closed.
+     * @param collector
+     * @param className the qualified name of the class, read on the thread owning the javac model.
+     * @param stage snapshot or build.
+     * @return the span, whose endpoints are set once the descriptor is built.
+     */
+    public static Span descriptor(String collector, String className, String stage) {
+        return AVAILABLE ? Recorder.descriptor(collector, className, stage) : Span.NONE;
+    }
+
+    /**
+     * Parsing the doc comment of an element.
+     * @param e
+     * @return the span.
+     */
+    public static Span docComment(Element e) {
+        return AVAILABLE ? Recorder.docComment(e) : Span.NONE;
+    }
+
+    /**
+     * Resolving a type met for the first time.
+     * @param type the name of the type.
+     * @return the span.
+     */
+    public static Span typeResolution(String type) {
+        return AVAILABLE ? Recorder.typeResolution(type) : Span.NONE;
+    }
+
+    /**
+     * A writer writing a file, or the section of a class in a file.
+     * @param writer the name of the writer.
+     * @param file
+     * @param className the class written, or a description of the classes written.
+     * @param endpoints the number of endpoints written, may be set later on the span.
+     * @return the span.
+     */
+    public static Span fileWrite(String writer, String file, String className, int endpoints) {
+        return AVAILABLE ? Recorder.fileWrite(writer, file, className, endpoints) : Span.NONE;
+    }
+
+    private static boolean isAvailable() {
+        try {
+            Class.forName("jdk.jfr.Event", false, Events.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    private static String name(TypeElement type) {
+        return type == null ? null : type.getQualifiedName().toString();
+    }
+
+    /**
+     * An event in progress.
+     */
+    public interface Span extends AutoCloseable {
+
+        Span NONE = () -> { };
+
+        /**
+         * Sets the number of classes of the event, if it has one.
+         * @param classes
+         */
+        default void setClasses(int classes) {
+        }
+
+        /**
+         * Sets the number of endpoints of the event, if it has one.
+         * @param endpoints
+         */
+        default void setEndpoints(int endpoints) {
+        }
+
+        @Override
+        void close();
+    }
+
+    /**
+     * Creates the events, only loaded when the jdk.jfr module is available.
+     */
+    private static final class Recorder {
+
+        static Span collectorPass(String collectors, int threads) {
+            CollectorPassEvent event = new CollectorPassEvent();
+            if (!event.isEnabled()) {
+                return Span.NONE;
+            }
+            event.collectors = collectors;
+            event.threads = threads;
+            event.begin();
+            return new Span() {
+                @Override
+                public void setClasses(int classes) {
+                    event.classes = classes;
+                }
+
+                @Override
+                public void setEndpoints(int endpoints) {
+                    event.endpoints = endpoints;
+                }
+
+                @Override
+                public void close() {
+                    event.commit();
+                }
+            };
+        }
+
+        static Span descriptor(String collector, String className, String stage) {
+            String previous = CURRENT_CLASS.get();
+            CURRENT_CLASS.set(className);
+
+            DescriptorEvent event = new DescriptorEvent();
+            if (!event.isEnabled()) {
+                return () -> CURRENT_CLASS.set(previous);
+            }
+            event.collector = collector;
+            event.className = className;
+            event.stage = stage;
+            event.begin();
+            return new Span() {
+                @Override
+                public void setEndpoints(int endpoints) {
+                    event.endpoints = endpoints;
+                }
+
+                @Override
+                public void close() {
+                    CURRENT_CLASS.set(previous);
+                    event.commit();
+                }
+            };
+        }
+
+        static Span docComment(Element e) {
+            DocCommentEvent event = new DocCommentEvent();
+            if (!event.isEnabled()) {
+                return Span.NONE;
+            }
+            TypeElement declaring = (e instanceof TypeElement ? (TypeElement) e
+                    : e.getEnclosingElement() instanceof TypeElement ? (TypeElement) e.getEnclosingElement() : null);
+            event.declaringClass = name(declaring);
+            event.className = (CURRENT_CLASS.get() == null ? event.declaringClass : CURRENT_CLASS.get());
+            event.element = e.getSimpleName().toString();
+            event.begin();
+            return event::commit;
+        }
+
+        static Span typeResolution(String type) {
+            TypeResolutionEvent event = new TypeResolutionEvent();
+            if (!event.isEnabled()) {
+                return Span.NONE;
+            }
+            event.className = CURRENT_CLASS.get();
+            event.type = type;
+            event.begin();
+            return event::commit;
+        }
+
+        static Span fileWrite(String writer, String file, String className, int endpoints) {
+            FileWriteEvent event = new FileWriteEvent();
+            if (!event.isEnabled()) {
+                return Span.NONE;
+            }
+            event.writer = writer;
+            event.file = file;
+            event.className = className;
+            event.endpoints = endpoints;
+            event.begin();
+            return new Span() {
+                @Override
+                public void setEndpoints(int endpoints) {
+                    event.endpoints = endpoints;
+                }
+
+                @Override
+                public void close() {
+                    event.commit();
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,215 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.Map;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+/**
+ * Writes the {@link RunMetrics} of a run, as a JSON document or, when the file name ends with .prom, in the
+ * text format of Prometheus read by the textfile collector of the node exporter.  The report is written next to
+ * its destination and then moved in place, so a collector never reads a partial report.
+ */
+public class MetricsReport {
+
+    public static final String PROMETHEUS_EXTENSION = ".prom";
+
+    private static final String PREFIX = "restdoclet_";
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private final RunMetrics metrics;
+    private final Map<String, String> labels;
+
+    /**
+     * @param metrics
+     * @param labels describing the run, such as the output format, written with every metric.
+     */
+    public MetricsReport(RunMetrics metrics, Map<String, String> labels) {
+        this.metrics = metrics;
+        this.labels = labels;
+    }
+
+    public void write(File file) throws IOException {
+        Path target = file.getAbsoluteFile().toPath();
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (Writer out = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            if (file.getName().endsWith(PROMETHEUS_EXTENSION)) {
+                writePrometheus(out);
+            } else {
+                writeJson(out);
+            }
+        }
+        try {
+            Files.move(temp, target, REPLACE_EXISTING, ATOMIC_MOVE);
+        } catch (IOException e) {
+            Files.move(temp, target, REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * The measures are in nanoseconds and bytes.
+     */
+    void writeJson(Writer out) throws IOException {
+        ObjectNode report = mapper.createObjectNode();
+        report.put("started", Instant.ofEpochMilli(metrics.getStartMillis()).toString());
+        for (Map.Entry<String, String> label : labels.entrySet()) {
+            report.put(label.getKey(), label.getValue());
+        }
+
+        putSections(report.putObject("phases"), metrics.getPhases());
+        putSections(report.putObject("collectors"), metrics.getCollectors());
+        putSections(report.putObject("writers"), metrics.getWriters());
+
+        ObjectNode counters = report.putObject("counters");
+        for (Map.Entry<String, Long> counter : metrics.getCounters().entrySet()) {
+            counters.put(counter.getKey(), counter.getValue());
+        }
+
+        mapper.writerWithDefaultPrettyPrinter().writeValue(out, report);
+    }
+
+    private void putSections(ObjectNode node, Map<String, RunMetrics.Section> sections) {
+        for (Map.Entry<String, RunMetrics.Section> entry : sections.entrySet()) {
+            RunMetrics.Section section = entry.getValue();
+            ObjectNode measures = node.putObject(entry.getKey());
+            measures.put("wallNanos", section.getWallNanos());
+            measures.put("cpuNanos", metrics.hasCpuTime() ? section.getCpuNanos() : -1);
+            measures.put("allocatedBytes", metrics.hasAllocatedBytes() ? section.getAllocatedBytes() : -1);
+            measures.put("count", section.getCount());
+        }
+    }
+
+    /**
+     * Every metric is a gauge, the report describes the last run.  The times are in seconds, the measures which
+     * can not be taken are left out.
+     */
+    void writePrometheus(Writer out) throws IOException {
+        BufferedWriter lines = (out instanceof BufferedWriter ? (BufferedWriter) out : new BufferedWriter(out));
+
+        gauge(lines, "start_time_seconds", "Start time of the last run, in seconds since the epoch.");
+        sample(lines, "start_time_seconds", null, null, metrics.getStartMillis() / 1000.0);
+
+        writeSections(lines, "phase", metrics.getPhases());
+        writeSections(lines, "collector", metrics.getCollectors());
+        writeSections(lines, "writer", metrics.getWriters());
+
+        for (Map.Entry<String, Long> counter : metrics.getCounters().entrySet()) {
+            String name = snakeCase(counter.getKey());
+            gauge(lines, name, "Number of " + name.replace('_', ' ') + " by the last run.");
+            sample(lines, name, null, null, counter.getValue());
+        }
+        lines.flush();
+    }
+
+    private void writeSections(BufferedWriter lines, String kind, Map<String, RunMetrics.Section> sections)
+            throws IOException {
+        if (sections.isEmpty()) {
+            return;
+        }
+
+        String wall = kind + "_wall_seconds";
+        gauge(lines, wall, "Wall time of each " + kind + " in the last run.");
+        for (Map.Entry<String, RunMetrics.Section> entry : sections.entrySet()) {
+            sample(lines, wall, kind, entry.getKey(), entry.getValue().getWallNanos() / 1e9);
+        }
+
+        if (metrics.hasCpuTime()) {
+            String cpu = kind + "_cpu_seconds";
+            gauge(lines, cpu, "Cpu time of each " + kind + " in the last run.");
+            for (Map.Entry<String, RunMetrics.Section> entry : sections.entrySet()) {
+                sample(lines, cpu, kind, entry.getKey(), entry.getValue().getCpuNanos() / 1e9);
+            }
+        }
+
+        if (metrics.hasAllocatedBytes()) {
+            String allocated = kind + "_allocated_bytes";
+            gauge(lines, allocated, "Bytes allocated by each " + kind + " in the last run.");
+            for (Map.Entry<String, RunMetrics.Section> entry : sections.entrySet()) {
+                sample(lines, allocated, kind, entry.getKey(), entry.getValue().getAllocatedBytes());
+            }
+        }
+
+        String count = kind + "_calls";
+        gauge(lines, count, "Number of measures of each " + kind + " in the last run.");
+        for (Map.Entry<String, RunMetrics.Section> entry : sections.entrySet()) {
+            sample(lines, count, kind, entry.getKey(), entry.getValue().getCount());
+        }
+    }
+
+    private static void gauge(BufferedWriter lines, String name, String help) throws IOException {
+        lines.write("# HELP " + PREFIX + name + " " + help);
+        lines.write('\n');
+        lines.write("# TYPE " + PREFIX + name + " gauge");
+        lines.write('\n');
+    }
+
+    private void sample(BufferedWriter lines, String name, String label, String value, double sample)
+            throws IOException {
+        StringBuilder line = new StringBuilder(PREFIX).append(name);
+        char separator = '{';
+        if (label != null) {
+            line.append(separator).append(label).append("=\"").append(escape(value)).append('"');
+            separator = ',';
+        }
+        for (Map.Entry<String, String> entry : labels.entrySet()) {
+            line.append(separator).append(snakeCase(entry.getKey())).append("=\"").append(escape(entry.getValue())).append('"');
+            separator = ',';
+        }
+        if (separator == ',') {
+            line.append('}');
+        }
+
+        line.append(' ');
+        if (sample == Math.rint(sample) && Math.abs(sample) < 1e15) {
+            line.append((long) sample);
+        } else {
+            line.append(String.format(Locale.ROOT, "%.9f", sample));
+        }
+        lines.write(line.toString());
+        lines.write('\n');
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static String snakeCase(String name) {
+        StringBuilder snake = new StringBuilder(name.length() + 4);
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (Character.isUpperCase(c)) {
+                snake.append('_').append(Character.toLowerCase(c));
+            } else {
+                snake.append(c);
+            }
+        }
+        return snake.toString();
+    }
+}
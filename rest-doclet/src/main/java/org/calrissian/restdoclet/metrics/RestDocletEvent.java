@@ -0,0 +1,34 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * The events recorded by the doclet in a flight recording, under the REST Doclet category.  The class is the
+ * controller being documented: the one being built for the events nested in its descriptor, such as parsing the
+ * comments of its base classes.
+ */
+@Category("REST Doclet")
+@StackTrace(false)
+abstract class RestDocletEvent extends Event {
+
+    @Label("Class")
+    String className;
+}
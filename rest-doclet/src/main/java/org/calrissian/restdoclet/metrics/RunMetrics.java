@@ -0,0 +1,311 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.metrics;
+
+import org.calrissian.restdoclet.model.ClassDescriptor;
+import org.calrissian.restdoclet.writer.DescriptorSink;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The cost of a doclet run: the wall time, cpu time and allocated bytes of its phases, of each collector and
+ * of each writer, and a few counters.
+ * <p>
+ * A phase is measured on the doclet thread.  The collectors and the writers are measured on the thread doing
+ * the work and their sections add up the work of every thread, so with more than one thread the cpu time of a
+ * collector can exceed the wall time of the collect phase.  The cpu time and the allocated bytes are read from
+ * the {@link ThreadMXBean} of the virtual machine, they are -1 when it can not measure them.
+ * <p>
+ * The instance returned by {@link #disabled()} measures nothing, so the code being measured does not need to
+ * know whether metrics were requested.
+ */
+public class RunMetrics {
+
+    public static final String CLASSES_SCANNED = "classesScanned";
+    public static final String ENDPOINTS_EMITTED = "endpointsEmitted";
+    public static final String DOC_COMMENTS_PARSED = "docCommentsParsed";
+    public static final String BYTES_WRITTEN = "bytesWritten";
+
+    private static final RunMetrics DISABLED = new RunMetrics(false);
+    private static final Timer NO_TIMER = () -> { };
+
+    private final boolean enabled;
+    private final ThreadMXBean threads;
+    private final com.sun.management.ThreadMXBean allocations;
+    private final long startMillis = System.currentTimeMillis();
+
+    private final Map<String, Section> phases = Collections.synchronizedMap(new LinkedHashMap<>());
+    private final Map<String, Section> collectors = Collections.synchronizedMap(new LinkedHashMap<>());
+    private final Map<String, Section> writers = Collections.synchronizedMap(new LinkedHashMap<>());
+    private final Map<String, LongAdder> counters = Collections.synchronizedMap(new LinkedHashMap<>());
+
+    public RunMetrics() {
+        this(true);
+    }
+
+    private RunMetrics(boolean enabled) {
+        this.enabled = enabled;
+
+        ThreadMXBean threads = null;
+        com.sun.management.ThreadMXBean allocations = null;
+        if (enabled) {
+            threads = ManagementFactory.getThreadMXBean();
+            if (threads.isCurrentThreadCpuTimeSupported() && !threads.isThreadCpuTimeEnabled()) {
+                threads.setThreadCpuTimeEnabled(true);
+            }
+            if (!threads.isCurrentThreadCpuTimeSupported()) {
+                threads = null;
+            }
+
+            if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean) {
+                allocations = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+                if (allocations.isThreadAllocatedMemorySupported() && !allocations.isThreadAllocatedMemoryEnabled()) {
+                    allocations.setThreadAllocatedMemoryEnabled(true);
+                }
+                if (!allocations.isThreadAllocatedMemorySupported()) {
+                    allocations = null;
+                }
+            }
+        }
+        this.threads = threads;
+        this.allocations = allocations;
+
+        for (String counter : new String[] {CLASSES_SCANNED, ENDPOINTS_EMITTED, DOC_COMMENTS_PARSED, BYTES_WRITTEN}) {
+            counters.put(counter, new LongAdder());
+        }
+    }
+
+    /**
+     * @return metrics measuring nothing.
+     */
+    public static RunMetrics disabled() {
+        return DISABLED;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Starts measuring a phase on the current thread.
+     * @param name
+     * @return the timer to close at the end of the phase.
+     */
+    public Timer phase(String name) {
+        return start(phases, name);
+    }
+
+    /**
+     * Starts measuring the work of a collector on the current thread, such as building one class.
+     * @param name
+     * @return the timer to close once the work is done.
+     */
+    public Timer collector(String name) {
+        return start(collectors, name);
+    }
+
+    /**
+     * Starts measuring the work of a writer on the current thread, such as accepting one class.
+     * @param name
+     * @return the timer to close once the work is done.
+     */
+    public Timer writer(String name) {
+        return start(writers, name);
+    }
+
+    /**
+     * Adds to one of the counters.
+     * @param name
+     * @param delta
+     */
+    public void count(String name, long delta) {
+        if (enabled) {
+            counters.computeIfAbsent(name, key -> new LongAdder()).add(delta);
+        }
+    }
+
+    /**
+     * @param out a stream writing an output of the run, such as a generated file.
+     * @return a stream adding the bytes written through it to {@link #BYTES_WRITTEN}, the stream itself when
+     * the metrics are disabled.
+     */
+    public OutputStream countBytes(OutputStream out) {
+        if (!enabled) {
+            return out;
+        }
+        LongAdder bytes = counters.get(BYTES_WRITTEN);
+        return new FilterOutputStream(out) {
+            @Override
+            public void write(int b) throws IOException {
+                out.write(b);
+                bytes.increment();
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+                bytes.add(len);
+            }
+        };
+    }
+
+    /**
+     * @param name the name of the writer in the report.
+     * @param sink
+     * @return a sink measuring the time spent in the sink as the work of the writer.
+     */
+    @SuppressWarnings("try")
+    public DescriptorSink meter(String name, DescriptorSink sink) {
+        if (!enabled) {
+            return sink;
+        }
+        return new DescriptorSink() {
+            @Override
+            public void accept(ClassDescriptor classDescriptor) throws IOException {
+                try (Timer timer = writer(name)) {
+                    sink.accept(classDescriptor);
+                }
+            }
+
+            @Override
+            public void close() throws IOException {
+                try (Timer timer = writer(name)) {
+                    sink.close();
+                }
+            }
+        };
+    }
+
+    /**
+     * @return the time the metrics were created, in milliseconds since the epoch.
+     */
+    public long getStartMillis() {
+        return startMillis;
+    }
+
+    public Map<String, Section> getPhases() {
+        return snapshot(phases);
+    }
+
+    public Map<String, Section> getCollectors() {
+        return snapshot(collectors);
+    }
+
+    public Map<String, Section> getWriters() {
+        return snapshot(writers);
+    }
+
+    /**
+     * @return the value of each counter.
+     */
+    public Map<String, Long> getCounters() {
+        Map<String, Long> values = new LinkedHashMap<>();
+        synchronized (counters) {
+            for (Map.Entry<String, LongAdder> entry : counters.entrySet()) {
+                values.put(entry.getKey(), entry.getValue().sum());
+            }
+        }
+        return values;
+    }
+
+    /**
+     * @return true if the cpu time of the threads is measured.
+     */
+    public boolean hasCpuTime() {
+        return threads != null;
+    }
+
+    /**
+     * @return true if the bytes allocated by the threads are measured.
+     */
+    public boolean hasAllocatedBytes() {
+        return allocations != null;
+    }
+
+    private Timer start(Map<String, Section> sections, String name) {
+        if (!enabled) {
+            return NO_TIMER;
+        }
+
+        Section section = sections.computeIfAbsent(name, key -> new Section());
+        long threadId = Thread.currentThread().getId();
+        long wall = System.nanoTime();
+        long cpu = (threads == null ? 0 : threads.getCurrentThreadCpuTime());
+        long allocated = (allocations == null ? 0 : allocations.getThreadAllocatedBytes(threadId));
+        return () -> {
+            section.wallNanos.add(System.nanoTime() - wall);
+            if (threads != null) {
+                section.cpuNanos.add(threads.getCurrentThreadCpuTime() - cpu);
+            }
+            if (allocations != null) {
+                section.allocatedBytes.add(allocations.getThreadAllocatedBytes(threadId) - allocated);
+            }
+            section.count.increment();
+        };
+    }
+
+    private static Map<String, Section> snapshot(Map<String, Section> sections) {
+        synchronized (sections) {
+            return Collections.unmodifiableMap(new LinkedHashMap<>(sections));
+        }
+    }
+
+    /**
+     * Stops a measure, on the thread which started it.
+     */
+    @FunctionalInterface
+    public interface Timer extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    /**
+     * The accumulated measures of a phase, a collector or a writer.
+     */
+    public static class Section {
+        private final LongAdder wallNanos = new LongAdder();
+        private final LongAdder cpuNanos = new LongAdder();
+        private final LongAdder allocatedBytes = new LongAdder();
+        private final LongAdder count = new LongAdder();
+
+        public long getWallNanos() {
+            return wallNanos.sum();
+        }
+
+        public long getCpuNanos() {
+            return cpuNanos.sum();
+        }
+
+        public long getAllocatedBytes() {
+            return allocatedBytes.sum();
+        }
+
+        /**
+         * @return the number of measures added up in the section.
+         */
+        public long getCount() {
+            return count.sum();
+        }
+    }
+}
@@ -15,19 +15,24 @@
  *******************************************************************************/
 package org.calrissian.restdoclet.model;
 
+import java.util.AbstractCollection;
 import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import static java.util.Collections.emptyIterator;
 
 public class ClassDescriptor {
 
     private final String name;
     private final String contextPath;
-    private final Collection<Endpoint> endpoints;
+    private final Collection<EndpointGroup> endpointGroups;
     private final String description;
 
-    public ClassDescriptor(String name, String contextPath, Collection<Endpoint> endpoints, String description) {
+    public ClassDescriptor(String name, String contextPath, Collection<EndpointGroup> endpointGroups, String description) {
         this.name = name;
         this.contextPath = contextPath;
-        this.endpoints = endpoints;
+        this.endpointGroups = endpointGroups;
         this.description = description;
     }
 
@@ -39,8 +44,52 @@ public class ClassDescriptor {
         return contextPath;
     }
 
+    /**
+     * @return the endpoints of each method of the class.
+     */
+    public Collection<EndpointGroup> getEndpointGroups() {
+        return endpointGroups;
+    }
+
+    /**
+     * A view of all the endpoints of the class, expanded from the endpoint groups while iterating.
+     * @return
+     */
     public Collection<Endpoint> getEndpoints() {
-        return endpoints;
+        return new AbstractCollection<Endpoint>() {
+            @Override
+            public Iterator<Endpoint> iterator() {
+                return new Iterator<Endpoint>() {
+                    private final Iterator<EndpointGroup> groupIterator = endpointGroups.iterator();
+                    private Iterator<Endpoint> endpointIterator = emptyIterator();
+
+                    @Override
+                    public boolean hasNext() {
+                        while (!endpointIterator.hasNext() && groupIterator.hasNext()) {
+                            endpointIterator = groupIterator.next().getEndpoints().iterator();
+                        }
+                        return endpointIterator.hasNext();
+                    }
+
+                    @Override
+                    public Endpoint next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        return endpointIterator.next();
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                int size = 0;
+                for (EndpointGroup group : endpointGroups) {
+                    size += group.size();
+                }
+                return size;
+            }
+        };
     }
 
     public String getDescription() {
@@ -52,7 +101,7 @@ public class ClassDescriptor {
         return "ClassDescriptor{" +
                 "name='" + name + '\'' +
                 ", contextPath='" + contextPath + '\'' +
-                ", endpoints=" + endpoints +
+                ", endpointGroups=" + endpointGroups +
                 ", description='" + description + '\'' +
                 '}';
     }
@@ -15,8 +15,6 @@
  *******************************************************************************/
 package org.calrissian.restdoclet.model;
 
-import javax.lang.model.type.TypeMirror;
-
 import java.util.Collection;
 
 public class Endpoint {
@@ -30,7 +28,7 @@ public class Endpoint {
     private final Collection<String> produces;
     private final String shortDescription;
     private final String description;
-    private final TypeMirror type;
+    private final TypeRef type;
 
     public Endpoint(
             String path,
@@ -42,7 +40,7 @@ public class Endpoint {
             Collection<String> produces,
             String shortDescription,
             String description,
-            TypeMirror type) {
+            TypeRef type) {
 
         this.path = path;
         this.httpMethod = httpMethod;
@@ -92,7 +90,7 @@ public class Endpoint {
         return description;
     }
 
-    public TypeMirror getType() {
+    public TypeRef getType() {
         return type;
     }
 
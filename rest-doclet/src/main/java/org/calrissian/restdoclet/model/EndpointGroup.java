@@ -0,0 +1,177 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.model;
+
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import static java.util.Collections.emptyIterator;
+
+/**
+ * All the endpoints of a single method.  The method is exposed on every combination of its paths and http
+ * methods, those combinations are only materialized when iterating over {@link #getEndpoints()}.
+ */
+public class EndpointGroup {
+
+    private final Collection<String> paths;
+    private final Collection<String> httpMethods;
+    private final Collection<QueryParam> queryParams;
+    private final Collection<PathVar> pathVars;
+    private final RequestBody requestBody;
+    private final Collection<String> consumes;
+    private final Collection<String> produces;
+    private final String shortDescription;
+    private final String description;
+    private final TypeRef type;
+
+    public EndpointGroup(
+            Collection<String> paths,
+            Collection<String> httpMethods,
+            Collection<QueryParam> queryParams,
+            Collection<PathVar> pathVars,
+            RequestBody requestBody,
+            Collection<String> consumes,
+            Collection<String> produces,
+            String shortDescription,
+            String description,
+            TypeRef type) {
+
+        this.paths = paths;
+        this.httpMethods = httpMethods;
+        this.queryParams = queryParams;
+        this.pathVars = pathVars;
+        this.requestBody = requestBody;
+        this.consumes = consumes;
+        this.produces = produces;
+        this.shortDescription = shortDescription;
+        this.description = description;
+        this.type = type;
+    }
+
+    public Collection<String> getPaths() {
+        return paths;
+    }
+
+    public Collection<String> getHttpMethods() {
+        return httpMethods;
+    }
+
+    public Collection<QueryParam> getQueryParams() {
+        return queryParams;
+    }
+
+    public Collection<PathVar> getPathVars() {
+        return pathVars;
+    }
+
+    public RequestBody getRequestBody() {
+        return requestBody;
+    }
+
+    public Collection<String> getConsumes() {
+        return consumes;
+    }
+
+    public Collection<String> getProduces() {
+        return produces;
+    }
+
+    public String getShortDescription() {
+        return shortDescription;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public TypeRef getType() {
+        return type;
+    }
+
+    /**
+     * @return the number of endpoints in the group.
+     */
+    public int size() {
+        return paths.size() * httpMethods.size();
+    }
+
+    /**
+     * A view of the endpoints of the group, ordered by http method then path.  The endpoints are created while
+     * iterating and are not retained by the group.
+     * @return
+     */
+    public Collection<Endpoint> getEndpoints() {
+        return new AbstractCollection<Endpoint>() {
+            @Override
+            public Iterator<Endpoint> iterator() {
+                return new Iterator<Endpoint>() {
+                    private final Iterator<String> methodIterator = httpMethods.iterator();
+                    private Iterator<String> pathIterator = emptyIterator();
+                    private String httpMethod;
+
+                    @Override
+                    public boolean hasNext() {
+                        while (!pathIterator.hasNext() && methodIterator.hasNext()) {
+                            httpMethod = methodIterator.next();
+                            pathIterator = paths.iterator();
+                        }
+                        return pathIterator.hasNext();
+                    }
+
+                    @Override
+                    public Endpoint next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        return new Endpoint(
+                                pathIterator.next(),
+                                httpMethod,
+                                queryParams,
+                                pathVars,
+                                requestBody,
+                                consumes,
+                                produces,
+                                shortDescription,
+                                description,
+                                type);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return EndpointGroup.this.size();
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return "EndpointGroup{" +
+                "paths=" + paths +
+                ", httpMethods=" + httpMethods +
+                ", queryParams=" + queryParams +
+                ", pathVars=" + pathVars +
+                ", requestBody=" + requestBody +
+                ", consumes=" + consumes +
+                ", produces=" + produces +
+                ", shortDescription='" + shortDescription + '\'' +
+                ", description='" + description + '\'' +
+                '}';
+    }
+}
@@ -15,15 +15,13 @@
  *******************************************************************************/
 package org.calrissian.restdoclet.model;
 
-import javax.lang.model.type.TypeMirror;
-
 public class PathVar {
 
     private final String name;
     private final String description;
-    private final TypeMirror type;
+    private final TypeRef type;
 
-    public PathVar(String name, String description, TypeMirror type) {
+    public PathVar(String name, String description, TypeRef type) {
         this.name = name;
         this.description = description;
         this.type = type;
@@ -37,7 +35,7 @@ public class PathVar {
         return description;
     }
 
-    public TypeMirror getType() {
+    public TypeRef getType() {
         return type;
     }
 
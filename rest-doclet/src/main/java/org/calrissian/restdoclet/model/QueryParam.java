@@ -15,16 +15,14 @@
  *******************************************************************************/
 package org.calrissian.restdoclet.model;
 
-import javax.lang.model.type.TypeMirror;
-
 public class QueryParam {
 
     private final String name;
     private final boolean required;
     private final String description;
-    private final TypeMirror type;
+    private final TypeRef type;
 
-    public QueryParam(String name, boolean required, String description, TypeMirror type) {
+    public QueryParam(String name, boolean required, String description, TypeRef type) {
         this.name = name;
         this.required = required;
         this.description = description;
@@ -43,7 +41,7 @@ public class QueryParam {
         return description;
     }
 
-    public TypeMirror getType() {
+    public TypeRef getType() {
         return type;
     }
 
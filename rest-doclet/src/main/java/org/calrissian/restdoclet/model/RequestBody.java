@@ -15,16 +15,13 @@
  *******************************************************************************/
 package org.calrissian.restdoclet.model;
 
-
-import javax.lang.model.type.TypeMirror;
-
 public class RequestBody {
 
     private final String name;
     private final String description;
-    private final TypeMirror type;
+    private final TypeRef type;
 
-    public RequestBody(String name, String description, TypeMirror type) {
+    public RequestBody(String name, String description, TypeRef type) {
         this.name = name;
         this.description = description;
         this.type = type;
@@ -38,7 +35,7 @@ public class RequestBody {
         return description;
     }
 
-    public TypeMirror getType() {
+    public TypeRef getType() {
         return type;
     }
 
@@ -0,0 +1,309 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.model;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import static org.calrissian.restdoclet.util.CommonUtils.fixPath;
+
+/**
+ * The routes of the documented endpoints, one node per path segment.  A segment is either a literal, a plain
+ * variable such as {id} or a pattern, a segment holding a variable with a regular expression such as {id:\d+}
+ * or mixing literals and variables such as {name}.{ext}.  Each node holds the values added on its route.
+ * <p>
+ * The children of a node are kept in insertion order, so the routes are listed grouped by prefix, in the order
+ * their first route was added.  A variable or a pattern only matches within a single segment.
+ *
+ * @param <V> the type of the values held by the routes.
+ */
+public class RouteTrie<V> {
+
+    public enum Kind {
+        LITERAL,
+        VARIABLE,
+        PATTERN
+    }
+
+    private final Node<V> root = new Node<>(null, "", Kind.LITERAL);
+    private int size;
+
+    /**
+     * Adds a value on a route, creating the nodes of the route as needed.
+     * @param path the path template of the route.
+     * @param value
+     * @return the node of the route.
+     */
+    public Node<V> add(String path, V value) {
+        Node<V> node = root;
+        for (String segment : split(fixPath(path))) {
+            Node<V> parent = node;
+            node = parent.children.get(segment);
+            if (node == null) {
+                node = new Node<>(parent, segment, kind(segment));
+                parent.children.put(segment, node);
+                if (node.kind != Kind.LITERAL) {
+                    parent.templates.add(node);
+                }
+            }
+        }
+
+        if (node.values.isEmpty()) {
+            size++;
+        }
+        node.values.add(value);
+        return node;
+    }
+
+    /**
+     * @param path the path template of a route.
+     * @return the node of the route, null if no value was added on the route.
+     */
+    public Node<V> get(String path) {
+        Node<V> node = root;
+        for (String segment : split(fixPath(path))) {
+            node = node.children.get(segment);
+            if (node == null) {
+                return null;
+            }
+        }
+        return node.values.isEmpty() ? null : node;
+    }
+
+    /**
+     * Finds the route matching a request path.  On each segment the literals are tried first, then the patterns
+     * and then the plain variables, in insertion order.  The RouteTable of the rest-doclet-routes library matches
+     * the route tables with the same precedence.
+     * @param path a request path, such as /users/42.
+     * @return the node of the matching route, null if no route matches.
+     */
+    public Node<V> match(String path) {
+        List<String> segments = split(fixPath(path));
+
+        //Candidates are pushed by increasing priority, the best one is popped first.
+        Deque<Node<V>> candidates = new ArrayDeque<>();
+        candidates.push(root);
+        while (!candidates.isEmpty()) {
+            Node<V> node = candidates.pop();
+            if (node.depth == segments.size()) {
+                if (!node.values.isEmpty()) {
+                    return node;
+                }
+                continue;
+            }
+
+            String segment = segments.get(node.depth);
+            for (int i = node.templates.size() - 1; i >= 0; i--) {
+                Node<V> template = node.templates.get(i);
+                if (template.kind == Kind.VARIABLE) {
+                    candidates.push(template);
+                }
+            }
+            for (int i = node.templates.size() - 1; i >= 0; i--) {
+                Node<V> template = node.templates.get(i);
+                if (template.kind == Kind.PATTERN && template.pattern.matcher(segment).matches()) {
+                    candidates.push(template);
+                }
+            }
+            Node<V> literal = node.children.get(segment);
+            if (literal != null && literal.kind == Kind.LITERAL) {
+                candidates.push(literal);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the nodes holding values, depth first and in insertion order.
+     */
+    public List<Node<V>> routes() {
+        List<Node<V>> routes = new ArrayList<>(size);
+        Deque<Iterator<Node<V>>> iterators = new ArrayDeque<>();
+        iterators.push(Collections.singleton(root).iterator());
+        while (!iterators.isEmpty()) {
+            Iterator<Node<V>> iterator = iterators.peek();
+            if (!iterator.hasNext()) {
+                iterators.pop();
+                continue;
+            }
+
+            Node<V> node = iterator.next();
+            if (!node.values.isEmpty()) {
+                routes.add(node);
+            }
+            if (!node.children.isEmpty()) {
+                iterators.push(node.children.values().iterator());
+            }
+        }
+        return routes;
+    }
+
+    /**
+     * @return the number of routes holding values.
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Splits a canonical path on the separators outside of the braces, a regular expression can hold a separator.
+     */
+    private static List<String> split(String path) {
+        List<String> segments = new ArrayList<>();
+        int depth = 0;
+        int start = 1;
+        for (int i = 1; i < path.length(); i++) {
+            char c = path.charAt(i);
+            if (c == '{') {
+                depth++;
+            } else if (c == '}' && depth > 0) {
+                depth--;
+            } else if (c == '/' && depth == 0) {
+                segments.add(path.substring(start, i));
+                start = i + 1;
+            }
+        }
+        if (start < path.length()) {
+            segments.add(path.substring(start));
+        }
+        return segments;
+    }
+
+    private static Kind kind(String segment) {
+        if (segment.indexOf('{') < 0) {
+            return Kind.LITERAL;
+        }
+        if (segment.charAt(0) == '{' && segment.indexOf('}') == segment.length() - 1 && segment.indexOf(':') < 0) {
+            return Kind.VARIABLE;
+        }
+        return Kind.PATTERN;
+    }
+
+    /**
+     * Compiles a pattern segment, the literals are quoted and each variable matches its regular expression or,
+     * when it has none, any text.
+     */
+    private static Pattern compile(String segment) {
+        StringBuilder regex = new StringBuilder();
+        int start = 0;
+        while (start < segment.length()) {
+            int open = segment.indexOf('{', start);
+            if (open < 0) {
+                regex.append(Pattern.quote(segment.substring(start)));
+                break;
+            }
+            if (open > start) {
+                regex.append(Pattern.quote(segment.substring(start, open)));
+            }
+
+            //Braces may be nested within the regular expression.
+            int depth = 0;
+            int close = open;
+            for (; close < segment.length(); close++) {
+                char c = segment.charAt(close);
+                if (c == '{') {
+                    depth++;
+                } else if (c == '}' && --depth == 0) {
+                    break;
+                }
+            }
+
+            String variable = segment.substring(open + 1, Math.min(close, segment.length()));
+            int colon = variable.indexOf(':');
+            regex.append('(').append(colon < 0 ? ".+" : variable.substring(colon + 1).trim()).append(')');
+            start = close + 1;
+        }
+        return Pattern.compile(regex.toString());
+    }
+
+    /**
+     * A segment of a route.
+     */
+    public static class Node<V> {
+        private final Node<V> parent;
+        private final String segment;
+        private final Kind kind;
+        private final int depth;
+        private final Pattern pattern;
+        private final Map<String, Node<V>> children = new LinkedHashMap<>();
+        //The variable and pattern children, matched in turn.
+        private final List<Node<V>> templates = new ArrayList<>(0);
+        private final List<V> values = new ArrayList<>(1);
+
+        private Node(Node<V> parent, String segment, Kind kind) {
+            this.parent = parent;
+            this.segment = segment;
+            this.kind = kind;
+            this.depth = (parent == null ? 0 : parent.depth + 1);
+            this.pattern = (kind == Kind.PATTERN ? compile(segment) : null);
+        }
+
+        public Node<V> getParent() {
+            return parent;
+        }
+
+        public String getSegment() {
+            return segment;
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        public int getDepth() {
+            return depth;
+        }
+
+        /**
+         * @return the path template of the route, built from the segments of the node and its parents.
+         */
+        public String getPath() {
+            String[] segments = new String[depth];
+            for (Node<V> node = this; node.parent != null; node = node.parent) {
+                segments[node.depth - 1] = "/" + node.segment;
+            }
+            return fixPath(segments);
+        }
+
+        public List<V> getValues() {
+            return Collections.unmodifiableList(values);
+        }
+
+        public Map<String, Node<V>> getChildren() {
+            return Collections.unmodifiableMap(children);
+        }
+
+        @Override
+        public String toString() {
+            return "Node{" +
+                    "path='" + getPath() + '\'' +
+                    ", kind=" + kind +
+                    ", values=" + values.size() +
+                    '}';
+        }
+    }
+}
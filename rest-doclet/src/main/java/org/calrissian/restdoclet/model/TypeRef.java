@@ -0,0 +1,142 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.model;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.unmodifiableList;
+import static java.util.Collections.unmodifiableMap;
+
+/**
+ * A type used by an endpoint, resolved once by the collectors.  It does not hold onto the javadoc model so the
+ * descriptors can be cached, serialized and written without it.
+ */
+public class TypeRef {
+
+    public enum Kind {
+        VOID,
+        PRIMITIVE,
+        OBJECT,
+        ENUM,
+        ARRAY,
+        ITERABLE,
+        SET;
+
+        /**
+         * @return true for arrays and iterables.
+         */
+        public boolean isContainer() {
+            return this == ARRAY || this == ITERABLE || this == SET;
+        }
+    }
+
+    private final String qualifiedName;
+    private final Kind kind;
+    private final TypeRef elementType;
+    private final List<String> enumConstants;
+    private final Map<String, TypeRef> properties;
+
+    /**
+     * @param qualifiedName
+     * @param kind
+     * @param elementType the type of the elements of a container, null if unknown or not a container.
+     * @param enumConstants
+     */
+    public TypeRef(String qualifiedName, Kind kind, TypeRef elementType, List<String> enumConstants) {
+        this(qualifiedName, kind, elementType, enumConstants, null);
+    }
+
+    /**
+     * @param qualifiedName
+     * @param kind
+     * @param elementType the type of the elements of a container, null if unknown or not a container.
+     * @param enumConstants
+     * @param properties the properties of a model class, by name.  The map is not copied: models can refer to each
+     *                   other, so it is completed once all the models of the graph exist, before the type is
+     *                   published.
+     */
+    public TypeRef(String qualifiedName, Kind kind, TypeRef elementType, List<String> enumConstants, Map<String, TypeRef> properties) {
+        this.qualifiedName = qualifiedName;
+        this.kind = kind;
+        this.elementType = elementType;
+        this.enumConstants = (enumConstants == null ? emptyList() : unmodifiableList(enumConstants));
+        this.properties = (properties == null ? null : unmodifiableMap(properties));
+    }
+
+    public String getQualifiedName() {
+        return qualifiedName;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public TypeRef getElementType() {
+        return elementType;
+    }
+
+    public List<String> getEnumConstants() {
+        return enumConstants;
+    }
+
+    /**
+     * @return true if the type is a model class, described by its properties.
+     */
+    public boolean isModel() {
+        return properties != null;
+    }
+
+    /**
+     * @return the properties of a model class, by name, empty if the type is not a model.  The property types
+     * can refer back to this type.
+     */
+    public Map<String, TypeRef> getProperties() {
+        return (properties == null ? emptyMap() : properties);
+    }
+
+    /**
+     * The properties are not compared, the name of a model determines them.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof TypeRef)) return false;
+
+        TypeRef typeRef = (TypeRef) o;
+        return qualifiedName.equals(typeRef.qualifiedName) &&
+                kind == typeRef.kind &&
+                Objects.equals(elementType, typeRef.elementType) &&
+                enumConstants.equals(typeRef.enumConstants);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(qualifiedName, kind, elementType, enumConstants);
+    }
+
+    @Override
+    public String toString() {
+        return "TypeRef{" +
+                "qualifiedName='" + qualifiedName + '\'' +
+                ", kind=" + kind +
+                ", elementType=" + elementType +
+                '}';
+    }
+}
@@ -0,0 +1,68 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.snapshot;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Layout of a snapshot file:
+ * <pre>
+ *   magic      "RDSN"
+ *   version    varint
+ *   strings    varint count, then for each string its varint UTF-8 length and bytes
+ *   types      varint count, then for each type its name, kind, element type, enum constants and model flag
+ *   models     varint count, then for each model its type and its properties, as name and type pairs
+ *   classes    varint count, then each class descriptor
+ * </pre>
+ * Strings and types are written once and referenced by their varint index plus one, zero standing for null.
+ * A type only references types which appear before it in the table, the properties of the models can
+ * reference any type since models refer to each other.
+ */
+final class SnapshotFormat {
+
+    static final byte[] MAGIC = {'R', 'D', 'S', 'N'};
+
+    //Any change to the layout requires a new version.
+    static final int VERSION = 2;
+
+    private SnapshotFormat() {}
+
+    static void writeVarInt(OutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    static int readVarInt(InputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException("Truncated snapshot");
+            }
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint in snapshot");
+    }
+}
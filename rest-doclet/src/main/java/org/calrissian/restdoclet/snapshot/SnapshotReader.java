@@ -0,0 +1,199 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.snapshot;
+
+import org.calrissian.restdoclet.model.*;
+import org.calrissian.restdoclet.writer.DescriptorSink;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.calrissian.restdoclet.snapshot.SnapshotFormat.*;
+
+/**
+ * Loads the class descriptors saved by {@link SnapshotWriter}.
+ */
+public class SnapshotReader {
+
+    private final DataInputStream in;
+    private String[] strings;
+    private TypeRef[] types;
+
+    private SnapshotReader(InputStream in) {
+        this.in = new DataInputStream(in);
+    }
+
+    /**
+     * @param file
+     * @return
+     * @throws IOException if the file is not a snapshot, or was written by an incompatible version.
+     */
+    public static Collection<ClassDescriptor> read(File file) throws IOException {
+        Collection<ClassDescriptor> classDescriptors = new ArrayList<>();
+        read(file, classDescriptors::add);
+        return classDescriptors;
+    }
+
+    /**
+     * Pushes the class descriptors of the snapshot to the sink one at a time.  The sink is not closed.
+     * @param file
+     * @param sink
+     * @throws IOException if the file is not a snapshot, or was written by an incompatible version.
+     */
+    public static void read(File file, DescriptorSink sink) throws IOException {
+        try (InputStream in = new BufferedInputStream(new FileInputStream(file))) {
+            new SnapshotReader(in).readSnapshot(file, sink);
+        }
+    }
+
+    private void readSnapshot(File file, DescriptorSink sink) throws IOException {
+        byte[] magic = new byte[MAGIC.length];
+        in.readFully(magic);
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new IOException("Not a rest-doclet snapshot: " + file);
+        }
+        int version = readVarInt(in);
+        if (version != VERSION) {
+            throw new IOException("Unsupported snapshot version " + version + ", expected " + VERSION + ": " + file);
+        }
+
+        strings = new String[readVarInt(in)];
+        for (int i = 0; i < strings.length; i++) {
+            byte[] bytes = new byte[readVarInt(in)];
+            in.readFully(bytes);
+            strings[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        TypeRef.Kind[] kinds = TypeRef.Kind.values();
+        types = new TypeRef[readVarInt(in)];
+        List<Map<String, TypeRef>> properties = new ArrayList<>(types.length);
+        for (int i = 0; i < types.length; i++) {
+            String name = readString();
+            int kind = readVarInt(in);
+            if (kind >= kinds.length) {
+                throw new IOException("Unknown type kind in snapshot: " + kind);
+            }
+            //Only the types already read can be referenced.
+            int elementRef = readVarInt(in);
+            if (elementRef > i) {
+                throw new IOException("Invalid type reference in snapshot: " + elementRef);
+            }
+            TypeRef elementType = (elementRef == 0 ? null : types[elementRef - 1]);
+            List<String> constants = new ArrayList<>();
+            for (int count = readVarInt(in); count > 0; count--) {
+                constants.add(readString());
+            }
+            //The properties of the models are read from the next table.
+            Map<String, TypeRef> modelProperties = (in.readBoolean() ? new LinkedHashMap<>() : null);
+            properties.add(modelProperties);
+            types[i] = new TypeRef(name, kinds[kind], elementType, constants, modelProperties);
+        }
+
+        for (int count = readVarInt(in); count > 0; count--) {
+            int ref = readVarInt(in);
+            if (ref < 1 || ref > types.length || properties.get(ref - 1) == null) {
+                throw new IOException("Invalid model reference in snapshot: " + ref);
+            }
+            for (int propertyCount = readVarInt(in); propertyCount > 0; propertyCount--) {
+                properties.get(ref - 1).put(readString(), readType());
+            }
+        }
+
+        int classCount = readVarInt(in);
+        for (int i = 0; i < classCount; i++) {
+            String name = readString();
+            String contextPath = readString();
+            String description = readString();
+
+            int groupCount = readVarInt(in);
+            Collection<EndpointGroup> groups = new ArrayList<>(groupCount);
+            for (int j = 0; j < groupCount; j++) {
+                groups.add(readGroup());
+            }
+            sink.accept(new ClassDescriptor(name, contextPath, groups, description));
+        }
+    }
+
+    private EndpointGroup readGroup() throws IOException {
+        Collection<String> paths = readStrings();
+        Collection<String> httpMethods = readStrings();
+
+        int queryParamCount = readVarInt(in);
+        Collection<QueryParam> queryParams = new ArrayList<>(queryParamCount);
+        for (int i = 0; i < queryParamCount; i++) {
+            queryParams.add(new QueryParam(readString(), in.readBoolean(), readString(), readType()));
+        }
+
+        int pathVarCount = readVarInt(in);
+        Collection<PathVar> pathVars = new ArrayList<>(pathVarCount);
+        for (int i = 0; i < pathVarCount; i++) {
+            pathVars.add(new PathVar(readString(), readString(), readType()));
+        }
+
+        RequestBody requestBody = null;
+        if (in.readBoolean()) {
+            requestBody = new RequestBody(readString(), readString(), readType());
+        }
+
+        return new EndpointGroup(
+                paths,
+                httpMethods,
+                queryParams,
+                pathVars,
+                requestBody,
+                readStrings(),
+                readStrings(),
+                readString(),
+                readString(),
+                readType());
+    }
+
+    private Collection<String> readStrings() throws IOException {
+        Collection<String> values = new LinkedHashSet<>();
+        for (int count = readVarInt(in); count > 0; count--) {
+            values.add(readString());
+        }
+        return values;
+    }
+
+    private String readString() throws IOException {
+        int ref = readVarInt(in);
+        if (ref < 0 || ref > strings.length) {
+            throw new IOException("Invalid string reference in snapshot: " + ref);
+        }
+        return (ref == 0 ? null : strings[ref - 1]);
+    }
+
+    private TypeRef readType() throws IOException {
+        int ref = readVarInt(in);
+        if (ref < 0 || ref > types.length) {
+            throw new IOException("Invalid type reference in snapshot: " + ref);
+        }
+        return (ref == 0 ? null : types[ref - 1]);
+    }
+}
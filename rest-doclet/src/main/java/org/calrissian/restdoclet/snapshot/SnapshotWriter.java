@@ -0,0 +1,251 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.snapshot;
+
+import org.calrissian.restdoclet.metrics.RunMetrics;
+import org.calrissian.restdoclet.model.*;
+import org.calrissian.restdoclet.writer.DescriptorSink;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.calrissian.restdoclet.snapshot.SnapshotFormat.*;
+
+/**
+ * Saves the collected class descriptors to a snapshot file, which can be rendered later by any writer without
+ * running javadoc again.  See {@link SnapshotFormat} for the layout.
+ *
+ * The descriptors are encoded as they are accepted into a temporary file next to the snapshot, since the tables
+ * of strings and types go in front of them and are only complete once every descriptor is encoded.  The snapshot
+ * is written when the sink is closed, by writing the tables and copying the encoded descriptors after them.
+ */
+public class SnapshotWriter implements DescriptorSink {
+
+    private final File file;
+    private final RunMetrics metrics;
+    private final Map<String, Integer> strings = new LinkedHashMap<>();
+    private final Map<TypeRef, Integer> types = new LinkedHashMap<>();
+
+    //Types and classes are encoded while the strings are interned, the tables are written in front of them.
+    private final ByteArrayOutputStream typeTable = new ByteArrayOutputStream();
+    private Path bodyFile;
+    private OutputStream body;
+    private int classCount;
+
+    //Models in the type table whose properties are not written yet.
+    private final Deque<TypeRef> pendingModels = new ArrayDeque<>();
+
+    public SnapshotWriter(File file) {
+        this(file, RunMetrics.disabled());
+    }
+
+    /**
+     * @param file
+     * @param metrics counting the bytes of the snapshot, without the temporary file.
+     */
+    public SnapshotWriter(File file, RunMetrics metrics) {
+        this.file = file;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void accept(ClassDescriptor classDescriptor) throws IOException {
+        if (body == null) {
+            openBody();
+        }
+
+        writeString(classDescriptor.getName());
+        writeString(classDescriptor.getContextPath());
+        writeString(classDescriptor.getDescription());
+
+        writeVarInt(body, classDescriptor.getEndpointGroups().size());
+        for (EndpointGroup group : classDescriptor.getEndpointGroups()) {
+            writeGroup(group);
+        }
+        classCount++;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            writeSnapshot();
+        } finally {
+            if (bodyFile != null) {
+                Files.deleteIfExists(bodyFile);
+            }
+        }
+    }
+
+    private void openBody() throws IOException {
+        Path parent = createParent();
+        bodyFile = Files.createTempFile(parent, file.getName(), ".tmp");
+        body = new BufferedOutputStream(Files.newOutputStream(bodyFile));
+    }
+
+    private Path createParent() throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (!parent.isDirectory() && !parent.mkdirs()) {
+            throw new IOException("Unable to create directory: " + parent);
+        }
+        return parent.toPath();
+    }
+
+    private void writeSnapshot() throws IOException {
+        if (body != null) {
+            body.close();
+        }
+
+        //Writing the properties may add other models, which are written in turn.
+        ByteArrayOutputStream modelTable = new ByteArrayOutputStream();
+        int modelCount = 0;
+        while (!pendingModels.isEmpty()) {
+            TypeRef model = pendingModels.poll();
+            writeVarInt(modelTable, types.get(model));
+            writeVarInt(modelTable, model.getProperties().size());
+            for (Map.Entry<String, TypeRef> property : model.getProperties().entrySet()) {
+                writeVarInt(modelTable, stringRef(property.getKey()));
+                writeVarInt(modelTable, typeRef(property.getValue()));
+            }
+            modelCount++;
+        }
+
+        createParent();
+        try (OutputStream out = new BufferedOutputStream(metrics.countBytes(new FileOutputStream(file)))) {
+            out.write(MAGIC);
+            writeVarInt(out, VERSION);
+
+            writeVarInt(out, strings.size());
+            for (String value : strings.keySet()) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                writeVarInt(out, bytes.length);
+                out.write(bytes);
+            }
+
+            writeVarInt(out, types.size());
+            typeTable.writeTo(out);
+
+            writeVarInt(out, modelCount);
+            modelTable.writeTo(out);
+
+            writeVarInt(out, classCount);
+            if (bodyFile != null) {
+                Files.copy(bodyFile, out);
+            }
+        }
+    }
+
+    private void writeGroup(EndpointGroup group) throws IOException {
+        writeStrings(group.getPaths());
+        writeStrings(group.getHttpMethods());
+
+        writeVarInt(body, group.getQueryParams().size());
+        for (QueryParam queryParam : group.getQueryParams()) {
+            writeString(queryParam.getName());
+            body.write(queryParam.isRequired() ? 1 : 0);
+            writeString(queryParam.getDescription());
+            writeType(queryParam.getType());
+        }
+
+        writeVarInt(body, group.getPathVars().size());
+        for (PathVar pathVar : group.getPathVars()) {
+            writeString(pathVar.getName());
+            writeString(pathVar.getDescription());
+            writeType(pathVar.getType());
+        }
+
+        RequestBody requestBody = group.getRequestBody();
+        body.write(requestBody == null ? 0 : 1);
+        if (requestBody != null) {
+            writeString(requestBody.getName());
+            writeString(requestBody.getDescription());
+            writeType(requestBody.getType());
+        }
+
+        writeStrings(group.getConsumes());
+        writeStrings(group.getProduces());
+        writeString(group.getShortDescription());
+        writeString(group.getDescription());
+        writeType(group.getType());
+    }
+
+    private void writeStrings(Collection<String> values) throws IOException {
+        writeVarInt(body, values.size());
+        for (String value : values) {
+            writeString(value);
+        }
+    }
+
+    private void writeString(String value) throws IOException {
+        writeVarInt(body, stringRef(value));
+    }
+
+    private void writeType(TypeRef type) throws IOException {
+        writeVarInt(body, typeRef(type));
+    }
+
+    private int stringRef(String value) {
+        if (value == null) {
+            return 0;
+        }
+        Integer ref = strings.get(value);
+        if (ref == null) {
+            ref = strings.size() + 1;
+            strings.put(value, ref);
+        }
+        return ref;
+    }
+
+    private int typeRef(TypeRef type) throws IOException {
+        if (type == null) {
+            return 0;
+        }
+        Integer ref = types.get(type);
+        if (ref != null) {
+            return ref;
+        }
+
+        //The element type goes in the table first.
+        int elementRef = typeRef(type.getElementType());
+
+        writeVarInt(typeTable, stringRef(type.getQualifiedName()));
+        writeVarInt(typeTable, type.getKind().ordinal());
+        writeVarInt(typeTable, elementRef);
+        writeVarInt(typeTable, type.getEnumConstants().size());
+        for (String constant : type.getEnumConstants()) {
+            writeVarInt(typeTable, stringRef(constant));
+        }
+        typeTable.write(type.isModel() ? 1 : 0);
+
+        ref = types.size() + 1;
+        types.put(type, ref);
+        if (type.isModel()) {
+            pendingModels.add(type);
+        }
+        return ref;
+    }
+}
@@ -19,6 +19,8 @@ import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Collection;
 
@@ -85,25 +87,74 @@ public class CommonUtils {
         }
     }
 
-    public static String fixPath(String path) {
-        if (isEmpty(path)) {
-            return "/";
+    /**
+     * @param content
+     * @return the SHA-256 digest of the content, in hexadecimal.
+     */
+    public static String sha256(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
         }
+    }
 
-        //remove duplicates path seperators
-        int len = 0;
-        while (path.length() != len) {
-            len = path.length();
-            path = path.replaceAll("//", "/");
+    /**
+     * @param path
+     * @return the canonical form of the path: a leading separator, no duplicate separators and no trailing
+     * separator.  A path already in its canonical form is returned as is.
+     */
+    public static String fixPath(String path) {
+        if (isCanonicalPath(path)) {
+            return path;
         }
-        if (path.length() > 1 && path.endsWith("/")) {
-            path = path.substring(0, path.length() - 2);
+        return fixPath(new String[] {path});
+    }
+
+    /**
+     * @param parts
+     * @return the canonical form of the concatenated parts, see {@link #fixPath(String)}.
+     */
+    public static String fixPath(String... parts) {
+        int length = 1;
+        for (String part : parts) {
+            length += (part == null ? 0 : part.length());
         }
 
-        if (!path.startsWith("/")) {
-            path = "/" + path;
+        //Single pass over the parts, a separator is only appended when the previous character is not one.
+        StringBuilder path = new StringBuilder(length);
+        path.append('/');
+        for (String part : parts) {
+            if (part == null)
+                continue;
+
+            for (int i = 0; i < part.length(); i++) {
+                char c = part.charAt(i);
+                if (c != '/' || path.charAt(path.length() - 1) != '/') {
+                    path.append(c);
+                }
+            }
+        }
+        if (path.length() > 1 && path.charAt(path.length() - 1) == '/') {
+            path.setLength(path.length() - 1);
         }
-        return path;
+
+        return path.toString();
+    }
+
+    private static boolean isCanonicalPath(String path) {
+        if (isEmpty(path) || path.charAt(0) != '/')
+            return false;
+
+        if (path.length() > 1 && path.charAt(path.length() - 1) == '/')
+            return false;
+
+        return path.indexOf("//") < 0;
     }
 
     public static List<ExecutableElement> getMethods(TypeElement classDoc) {
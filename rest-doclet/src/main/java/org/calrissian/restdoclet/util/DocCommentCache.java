@@ -0,0 +1,66 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.util;
+
+import com.sun.source.util.DocTrees;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import javax.lang.model.element.Element;
+
+/**
+ * Per run cache of the parsed doc comments, keyed by element.  A single instance is meant to be shared by all
+ * the collectors of a run so each comment is only parsed once.
+ */
+public class DocCommentCache {
+
+    private final DocTrees treeUtils;
+    private final Map<Element, DocCommentModel> comments = new ConcurrentHashMap<>();
+    private final LongAdder parsed = new LongAdder();
+
+    public DocCommentCache(DocTrees treeUtils) {
+        this.treeUtils = treeUtils;
+    }
+
+    /**
+     * Retrieves the parsed doc comment of the element, parsing it on first access.
+     * @param e
+     * @return
+     */
+    public DocCommentModel get(Element e) {
+        DocCommentModel model = comments.get(e);
+        if (model == null) {
+            model = DocCommentModel.parse(e, treeUtils);
+            parsed.increment();
+            DocCommentModel previous = comments.putIfAbsent(e, model);
+            if (previous != null) {
+                model = previous;
+            }
+        }
+        return model;
+    }
+
+    /**
+     * @return the number of comments parsed, a comment parsed concurrently by two threads is counted twice.
+     */
+    public long getParsedCount() {
+        return parsed.sum();
+    }
+
+    public DocTrees getTreeUtils() {
+        return treeUtils;
+    }
+}
@@ -0,0 +1,162 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.util;
+
+import com.sun.source.doctree.DocCommentTree;
+import com.sun.source.doctree.DocTree;
+import com.sun.source.doctree.LinkTree;
+import com.sun.source.doctree.ParamTree;
+import com.sun.source.doctree.UnknownBlockTagTree;
+import com.sun.source.util.DocTrees;
+import com.sun.source.util.SimpleDocTreeVisitor;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import javax.lang.model.element.Element;
+import org.calrissian.restdoclet.metrics.Events;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.unmodifiableMap;
+
+/**
+ * The parsed doc comment of a single element.  The comment is parsed once into its custom block tags,
+ * its param tags, its first sentence and its full body.
+ */
+public class DocCommentModel {
+
+    public static final DocCommentModel EMPTY = new DocCommentModel(
+            new TreeMap<String, List<String>>(),
+            new TreeMap<String, List<String>>(),
+            "",
+            ""
+    );
+
+    private final Map<String, List<String>> tags;
+    private final Map<String, List<String>> params;
+    private final String firstSentence;
+    private final String fullBody;
+
+    private DocCommentModel(Map<String, List<String>> tags, Map<String, List<String>> params, String firstSentence, String fullBody) {
+        this.tags = unmodifiableMap(tags);
+        this.params = unmodifiableMap(params);
+        this.firstSentence = firstSentence;
+        this.fullBody = fullBody;
+    }
+
+    /**
+     * Parses the doc comment of the element.  Enclosed elements are not visited.
+     * @param e
+     * @param treeUtils
+     * @return
+     */
+    @SuppressWarnings("try")
+    public static DocCommentModel parse(Element e, DocTrees treeUtils) {
+        try (Events.Span span = Events.docComment(e)) {
+            DocCommentTree dcTree = treeUtils.getDocCommentTree(e);
+            if (dcTree == null) {
+                return EMPTY;
+            }
+
+            TagVisitor visitor = new TagVisitor();
+            visitor.visit(dcTree, null);
+            return new DocCommentModel(visitor.tags, visitor.params, visitor.firstSentence, visitor.fullBody);
+        }
+    }
+
+    /**
+     * Retrieves the content of the custom block tag with the given name.
+     * @param tagName
+     * @return
+     */
+    public List<String> getTags(String tagName) {
+        List<String> content = tags.get(tagName);
+        return (content == null ? emptyList() : content);
+    }
+
+    public Map<String, List<String>> getParams() {
+        return params;
+    }
+
+    public String getFirstSentence() {
+        return firstSentence;
+    }
+
+    public String getFullBody() {
+        return fullBody;
+    }
+
+    /**
+     * A visitor to gather the block tags found in a comment.
+     */
+    private static class TagVisitor extends SimpleDocTreeVisitor<Void, Void> {
+
+        private final Map<String, List<String>> tags = new TreeMap<>();
+        private final Map<String, List<String>> params = new TreeMap<>();
+        private String firstSentence = "";
+        private String fullBody = "";
+
+        /**
+         * this is the full comment block.
+         */
+        @Override
+        public Void visitDocComment(DocCommentTree tree, Void p) {
+            firstSentence = concat(tree.getFirstSentence());
+            fullBody = concat(tree.getFullBody());
+            return visit(tree.getBlockTags(), null);
+        }
+
+        /**
+         * the @param block.
+         */
+        @Override
+        public Void visitParam(ParamTree node, Void p) {
+            params.put(node.getName().toString(), toString(node.getDescription()));
+            return null;
+        }
+
+        /**
+         * Specific made up tag.
+         */
+        @Override
+        public Void visitUnknownBlockTag(UnknownBlockTagTree tree, Void p) {
+            tags.put(tree.getTagName(), toString(tree.getContent()));
+            return null;
+        }
+
+        private static String concat(List<? extends DocTree> trees) {
+            StringBuilder sb = new StringBuilder();
+            for (String s : toString(trees)) {
+                sb.append(s);
+            }
+            return sb.toString();
+        }
+
+        private static List<String> toString(List<? extends DocTree> trees) {
+            List<String> results = new ArrayList<>();
+            for (DocTree t : trees) {
+                // there are probably other case than Linktree here we need to handle
+                if (t instanceof LinkTree) {
+                    LinkTree lt = (LinkTree) t;
+                    results.add(lt.getReference().toString());
+                } else if (t != null) {
+                    results.add(t.toString());
+                }
+            }
+            return results;
+        }
+    }
+}
@@ -15,20 +15,10 @@
  *******************************************************************************/
 package org.calrissian.restdoclet.util;
 
-import com.sun.source.doctree.DocCommentTree;
-import com.sun.source.doctree.DocTree;
-import com.sun.source.doctree.LinkTree;
-import com.sun.source.doctree.ParamTree;
-import com.sun.source.doctree.UnknownBlockTagTree;
 import com.sun.source.util.DocTrees;
-import com.sun.source.util.SimpleDocTreeVisitor;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
-import java.util.TreeMap;
 import javax.lang.model.element.Element;
-import javax.lang.model.util.ElementScanner9;
 
 public class TagUtils {
 
@@ -50,135 +40,24 @@ public class TagUtils {
         return null;
     }
 
+    /*
+     * The methods below parse the comment on each call.  Collectors should go through a shared
+     * {@link DocCommentCache} instead.
+     */
+
     public static String fullBody(Element e, DocTrees treeUtils) {
-        TagScanner scanner = new TagScanner(treeUtils);
-        scanner.scan(e, 0);
-        StringBuilder sb = new StringBuilder();
-        if (scanner.common.containsKey(FULL_BODY_TAG)) {
-            for (String s : scanner.common.get(FULL_BODY_TAG)) {
-                sb.append(s);
-            }
-        }
-        return sb.toString();
+        return DocCommentModel.parse(e, treeUtils).getFullBody();
     }
-    
+
     public static String firstSentence(Element e, DocTrees treeUtils) {
-        TagScanner scanner = new TagScanner(treeUtils);
-        scanner.scan(e, 0);
-        StringBuilder sb = new StringBuilder();
-        if (scanner.common.containsKey(FIRST_SENTENCE_TAG)) {
-            for (String s : scanner.common.get(FIRST_SENTENCE_TAG)) {
-                sb.append(s);
-            }
-        }
-        return sb.toString();
+        return DocCommentModel.parse(e, treeUtils).getFirstSentence();
     }
 
     public static List<String> getTags(Element e, String tagName, DocTrees treeUtils) {
-        TagScanner scanner = new TagScanner(treeUtils);
-        scanner.scan(e, 0);
-        if (scanner.tags.containsKey(tagName)) {
-            return scanner.tags.get(tagName);
-        }
-        return new ArrayList<>();
+        return DocCommentModel.parse(e, treeUtils).getTags(tagName);
     }
 
     public static Map<String, List<String>> getParams(Element e, DocTrees treeUtils) {
-        TagScanner scanner = new TagScanner(treeUtils);
-        scanner.scan(e, 0);
-        return scanner.params;
-    }
-
-    /**
-     * A scanner to search for elements with documentation comments,
-     * and to examine those comments for custom tags.
-     */
-    private static class TagScanner extends ElementScanner9<Void, Integer> {
-        private final DocTrees treeUtils;
-
-        public final Map<String, List<String>> tags = new TreeMap<>();
-        public final Map<String, List<String>> common = new TreeMap<>();
-        public final Map<String, List<String>> params = new TreeMap<>();
-
-        TagScanner(DocTrees treeUtils) {
-            this.treeUtils = treeUtils;
-        }
-
-        void show(Set<? extends Element> elements) {
-            scan(elements, 0);
-        }
-
-        @Override
-        public Void scan(Element e, Integer depth) {
-            DocCommentTree dcTree = treeUtils.getDocCommentTree(e);
-            if (dcTree != null) {
-                new TagVisitor(tags, common, params).visit(dcTree, null);
-            }
-            return super.scan(e, depth + 1);
-        }
-    }
-
-    /**
-     * A visitor to gather the block tags found in a comment.
-     */
-    private static class TagVisitor extends SimpleDocTreeVisitor<Void, Void> {
-
-        private final Map<String, List<String>> params;
-        private final Map<String, List<String>> tags;
-        private final Map<String, List<String>> common;
-
-        TagVisitor(Map<String, List<String>> tags, Map<String, List<String>> common, Map<String, List<String>> params) {
-            this.tags = tags;
-            this.common = common;
-            this.params = params;
-        }
-
-        /**
-         * this is the full comment block.
-         */
-        @Override
-        public Void visitDocComment(DocCommentTree tree, Void p) {
-            List<String> fs = toString(tree.getFirstSentence());
-            common.put(FIRST_SENTENCE_TAG, fs);
-            List<String> fb =  toString(tree.getFullBody());
-            common.put(FULL_BODY_TAG, fb);
-            return visit(tree.getBlockTags(), null);
-        }
-
-
-        /**
-         * the @param block.
-         */
-        @Override
-        public Void visitParam(ParamTree node, Void p) {
-            List<String> content =  toString(node.getDescription());
-            params.put(node.getName().toString(),content);
-            return null;
-        }
-
-        /**
-         * Specific made up tag.
-         */
-        @Override
-        public Void visitUnknownBlockTag(UnknownBlockTagTree tree, Void p) {
-            String name = tree.getTagName();
-            List<String> content = toString(tree.getContent());
-            tags.put(name,content);
-            return null;
-        }
-
-        private static List<String> toString(List<? extends DocTree> trees) {
-            List<String> results = new ArrayList<>();
-            for (DocTree t : trees) {
-                // there are probably other case than Linktree here we need to handle
-                if (t instanceof LinkTree) {
-                    LinkTree lt = (LinkTree) t;
-                    results.add(lt.getReference().toString());
-                } else if (t != null) {
-                    results.add(t.toString());
-                }
-            }
-            return results;
-        }
+        return DocCommentModel.parse(e, treeUtils).getParams();
     }
 }
@@ -0,0 +1,454 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.util;
+
+import org.calrissian.restdoclet.metrics.Events;
+import org.calrissian.restdoclet.model.TypeRef;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.ExecutableType;
+import javax.lang.model.type.IntersectionType;
+import javax.lang.model.type.NoType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.TypeVariable;
+import javax.lang.model.type.WildcardType;
+import javax.lang.model.util.Types;
+
+import static java.util.Collections.unmodifiableSet;
+import static org.calrissian.restdoclet.model.TypeRef.Kind.*;
+import static org.calrissian.restdoclet.util.CommonUtils.asTypeElement;
+
+/**
+ * Resolves the types of the javadoc model into {@link TypeRef}s.
+ *
+ * The classes outside of the JDK are resolved as models, with a property for each field and getter.  A generic
+ * class is a different model for each list of type arguments, Page&lt;User&gt; and Page&lt;Order&gt; are named
+ * after their arguments and their properties are the members of the parameterized type.  The model of a type is
+ * built once per run and shared by every type referring to it.  Models can refer to each other, including
+ * themselves, their properties are resolved with a work list rather than by recursion, so deep or cyclic graphs
+ * are walked once without growing the stack.
+ *
+ * A type variable left unresolved, such as the one of a generic method, stands for the erasure of its bound, it
+ * is never a model of its own.  The wrappers of a response or a body, such as ResponseEntity or Optional, stand
+ * for their type argument.
+ *
+ * Every type is resolved once per run: the resolved types are kept by name, and the same instance is returned
+ * each time the type is met, along with its enum constants.  The super types of each class are listed once as
+ * well, to tell containers apart.
+ *
+ * The javac model is not thread safe: resolving new models is serialized, and is meant to happen before the
+ * resolver is used by several threads, as {@link org.calrissian.restdoclet.collector.CollectorEngine} does.
+ */
+public class TypeResolver {
+
+    //Types standing for their first type argument.
+    private static final Set<String> WRAPPERS = Set.of(
+            "org.springframework.http.HttpEntity",
+            "org.springframework.http.RequestEntity",
+            "org.springframework.http.ResponseEntity",
+            "org.springframework.web.context.request.async.DeferredResult",
+            "java.util.Optional",
+            "java.util.concurrent.Callable",
+            "java.util.concurrent.CompletableFuture",
+            "java.util.concurrent.CompletionStage",
+            "java.util.concurrent.Future");
+
+    private static final TypeRef OBJECT_TYPE = new TypeRef(Object.class.getName(), OBJECT, null, null);
+
+    private final Types typeUtils;
+
+    //Resolved types by name, including the type arguments.
+    private final Map<String, TypeRef> resolved = new ConcurrentHashMap<>();
+
+    //Qualified names of the class, its super classes and all its interfaces.
+    private final Map<TypeElement, Set<String>> supertypes = new ConcurrentHashMap<>();
+
+    //Models whose whole graph is resolved, safe to share between threads, by name including the type arguments.
+    private final Map<String, TypeRef> models = new ConcurrentHashMap<>();
+
+    //Models being resolved and their properties left to resolve, guarded by this.
+    private final Map<String, TypeRef> incomplete = new HashMap<>();
+    private final Deque<Model> pending = new ArrayDeque<>();
+
+    /**
+     * A resolver without the type utilities of the run can not apply the type arguments of a generic model to
+     * its properties, they are resolved from their declaration and the type variables as objects.
+     */
+    public TypeResolver() {
+        this(null);
+    }
+
+    /**
+     * @param typeUtils of the run, used to resolve the properties of the generic models with their type arguments.
+     */
+    public TypeResolver(Types typeUtils) {
+        this.typeUtils = typeUtils;
+    }
+
+    /**
+     * @param type
+     * @return null if the type is null.
+     */
+    @SuppressWarnings("try")
+    public TypeRef resolve(TypeMirror type) {
+        if (type == null)
+            return null;
+
+        //The name of a type variable depends on where it is declared, the type is keyed by the bounds instead.
+        if (typeUtils != null) {
+            type = eraseVariables(type);
+        }
+
+        String key = type.toString();
+        TypeRef typeRef = resolved.get(key);
+        if (typeRef == null) {
+            try (Events.Span span = Events.typeResolution(key)) {
+                typeRef = resolve(type, true);
+            }
+            TypeRef previous = resolved.putIfAbsent(key, typeRef);
+            typeRef = (previous == null ? typeRef : previous);
+        }
+        return typeRef;
+    }
+
+    /**
+     * @param type
+     * @param complete false while resolving the properties of a model, the models found are only queued.
+     */
+    private TypeRef resolve(TypeMirror type, boolean complete) {
+        if (type == null)
+            return null;
+
+        //Only complete types are kept, the ones met while resolving a model are not.
+        TypeRef known = resolved.get(type.toString());
+        if (known != null)
+            return known;
+
+        if (type instanceof ArrayType) {
+            return new TypeRef(type.toString(), ARRAY, resolve(((ArrayType) type).getComponentType(), complete), null);
+        }
+
+        if (type instanceof NoType) {
+            return new TypeRef(type.toString(), VOID, null, null);
+        }
+
+        if (type.getKind().isPrimitive()) {
+            return new TypeRef(type.toString(), PRIMITIVE, null, null);
+        }
+
+        if (type.getKind() == TypeKind.TYPEVAR) {
+            return (typeUtils == null ? OBJECT_TYPE : resolve(typeUtils.erasure(((TypeVariable) type).getUpperBound()), complete));
+        }
+
+        if (type.getKind() == TypeKind.WILDCARD) {
+            TypeMirror bound = ((WildcardType) type).getExtendsBound();
+            return (bound == null ? OBJECT_TYPE : resolve(bound, complete));
+        }
+
+        if (type.getKind() == TypeKind.INTERSECTION) {
+            return resolve(((IntersectionType) type).getBounds().get(0), complete);
+        }
+
+        TypeElement te = asTypeElement(type);
+        if (te == null) {
+            return new TypeRef(type.toString(), OBJECT, null, null);
+        }
+
+        String name = te.getQualifiedName().toString();
+
+        if (WRAPPERS.contains(name)) {
+            List<? extends TypeMirror> arguments = ((DeclaredType) type).getTypeArguments();
+            return (arguments.isEmpty() ? OBJECT_TYPE : resolve(arguments.get(0), complete));
+        }
+
+        //treat iterables as lists, and sets as sets
+        Set<String> superNames = getSupertypes(te);
+        if (superNames.contains(Iterable.class.getName())) {
+            List<? extends TypeMirror> paramTypes = ((DeclaredType) type).getTypeArguments();
+            TypeRef elementType = (paramTypes.isEmpty() ? null : resolve(paramTypes.get(0), complete));
+            return new TypeRef(name, (superNames.contains(Set.class.getName()) ? SET : ITERABLE), elementType, null);
+        }
+
+        if (te.getKind() == ElementKind.ENUM) {
+            return new TypeRef(name, ENUM, null, getEnumValues(te));
+        }
+
+        if (isModel(te)) {
+            return getModel((DeclaredType) type, te, complete);
+        }
+
+        return new TypeRef(name, OBJECT, null, null);
+    }
+
+    /**
+     * The classes and interfaces which are not part of the JDK.
+     */
+    private static boolean isModel(TypeElement te) {
+        if (te.getKind() != ElementKind.CLASS && te.getKind() != ElementKind.INTERFACE) {
+            return false;
+        }
+        String name = te.getQualifiedName().toString();
+        return !name.startsWith("java.") && !name.startsWith("javax.");
+    }
+
+    private TypeRef getModel(DeclaredType type, TypeElement te, boolean complete) {
+        String name = getModelName(type, te, complete);
+        TypeRef model = models.get(name);
+        if (model != null) {
+            return model;
+        }
+
+        synchronized (this) {
+            model = models.get(name);
+            if (model != null) {
+                return model;
+            }
+
+            model = incomplete.get(name);
+            if (model == null) {
+                Map<String, TypeRef> properties = new LinkedHashMap<>();
+                model = new TypeRef(name, OBJECT, null, null, properties);
+                incomplete.put(name, model);
+                pending.add(new Model(type, properties));
+            }
+
+            if (complete) {
+                while (!pending.isEmpty()) {
+                    Model next = pending.poll();
+                    readProperties(next.type, next.properties);
+                }
+                //The whole graph is resolved, publish it.
+                models.putAll(incomplete);
+                incomplete.clear();
+            }
+            return model;
+        }
+    }
+
+    /**
+     * @return the qualified name of the class, followed by the names of the resolved type arguments.  Two
+     * arguments with the same name resolve to the same properties, so they make the same model.
+     */
+    private String getModelName(DeclaredType type, TypeElement te, boolean complete) {
+        List<? extends TypeMirror> arguments = type.getTypeArguments();
+        if (arguments.isEmpty()) {
+            return te.getQualifiedName().toString();
+        }
+
+        StringBuilder name = new StringBuilder(te.getQualifiedName()).append('<');
+        for (int i = 0; i < arguments.size(); i++) {
+            if (i > 0) {
+                name.append(',');
+            }
+            appendName(name, resolve(arguments.get(i), complete));
+        }
+        return name.append('>').toString();
+    }
+
+    private static void appendName(StringBuilder name, TypeRef type) {
+        if (type.getKind() == ARRAY && type.getElementType() != null) {
+            appendName(name, type.getElementType());
+            name.append("[]");
+        } else if (type.getKind().isContainer() && type.getElementType() != null) {
+            name.append(type.getQualifiedName()).append('<');
+            appendName(name, type.getElementType());
+            name.append('>');
+        } else {
+            name.append(type.getQualifiedName());
+        }
+    }
+
+    /**
+     * @param type
+     * @return the type with its type variables replaced by the erasure of their bounds, the same instance if
+     * it has none.
+     */
+    private TypeMirror eraseVariables(TypeMirror type) {
+        switch (type.getKind()) {
+            case TYPEVAR:
+                return typeUtils.erasure(((TypeVariable) type).getUpperBound());
+            case WILDCARD: {
+                TypeMirror bound = ((WildcardType) type).getExtendsBound();
+                TypeMirror erased = (bound == null ? null : eraseVariables(bound));
+                return (erased == bound ? type : typeUtils.getWildcardType(erased, null));
+            }
+            case ARRAY: {
+                TypeMirror component = ((ArrayType) type).getComponentType();
+                TypeMirror erased = eraseVariables(component);
+                return (erased == component ? type : typeUtils.getArrayType(erased));
+            }
+            case DECLARED: {
+                DeclaredType declared = (DeclaredType) type;
+                List<? extends TypeMirror> arguments = declared.getTypeArguments();
+                TypeMirror[] erased = new TypeMirror[arguments.size()];
+                boolean changed = false;
+                for (int i = 0; i < erased.length; i++) {
+                    erased[i] = eraseVariables(arguments.get(i));
+                    changed |= (erased[i] != arguments.get(i));
+                }
+                if (!changed) {
+                    return type;
+                }
+                TypeElement te = (TypeElement) declared.asElement();
+                TypeMirror enclosing = declared.getEnclosingType();
+                return (enclosing.getKind() == TypeKind.DECLARED ?
+                        typeUtils.getDeclaredType((DeclaredType) eraseVariables(enclosing), te, erased) :
+                        typeUtils.getDeclaredType(te, erased));
+            }
+            default:
+                return type;
+        }
+    }
+
+    /**
+     * Reads the fields and the getters of the class and of its super classes, the first one found naming a
+     * property gives its type.  The types are the ones of the members of the parameterized type, so a field
+     * declared as T in Page&lt;T&gt; has the type User in Page&lt;User&gt;.
+     */
+    private void readProperties(DeclaredType type, Map<String, TypeRef> properties) {
+        TypeElement current = asTypeElement(type);
+        while (current != null && isModel(current)) {
+            for (Element member : current.getEnclosedElements()) {
+                Set<Modifier> modifiers = member.getModifiers();
+                if (modifiers.contains(Modifier.STATIC)) {
+                    continue;
+                }
+
+                if (member.getKind() == ElementKind.FIELD && !modifiers.contains(Modifier.TRANSIENT)) {
+                    String name = member.getSimpleName().toString();
+                    if (!properties.containsKey(name)) {
+                        properties.put(name, resolve(memberType(type, member), false));
+                    }
+                } else if (member.getKind() == ElementKind.METHOD && modifiers.contains(Modifier.PUBLIC)) {
+                    ExecutableElement method = (ExecutableElement) member;
+                    String name = getPropertyName(method);
+                    if (name != null && !properties.containsKey(name)) {
+                        properties.put(name, resolve(((ExecutableType) memberType(type, method)).getReturnType(), false));
+                    }
+                }
+            }
+
+            TypeMirror superClass = current.getSuperclass();
+            current = (superClass == null || superClass instanceof NoType ? null : asTypeElement(superClass));
+        }
+    }
+
+    /**
+     * @param owner
+     * @param member of the owner, or of one of its super classes.
+     * @return the type of the member as seen from the owner, its declared type without the type utilities.
+     */
+    private TypeMirror memberType(DeclaredType owner, Element member) {
+        return (typeUtils == null ? member.asType() : typeUtils.asMemberOf(owner, member));
+    }
+
+    /**
+     * @param method
+     * @return the name of the property read by a getter, null if the method is not a getter.
+     */
+    private static String getPropertyName(ExecutableElement method) {
+        if (!method.getParameters().isEmpty() || method.getReturnType() instanceof NoType) {
+            return null;
+        }
+
+        String name = method.getSimpleName().toString();
+        String property;
+        if (name.startsWith("get") && name.length() > 3) {
+            property = name.substring(3);
+        } else if (name.startsWith("is") && name.length() > 2 && method.getReturnType().getKind() == TypeKind.BOOLEAN) {
+            property = name.substring(2);
+        } else {
+            return null;
+        }
+
+        //Same as the java beans convention, "URL" stays "URL" but "Name" becomes "name".
+        if (property.length() > 1 && Character.isUpperCase(property.charAt(1)) && Character.isUpperCase(property.charAt(0))) {
+            return property;
+        }
+        return Character.toLowerCase(property.charAt(0)) + property.substring(1);
+    }
+
+    /**
+     * A model whose properties are not resolved yet.
+     */
+    private static class Model {
+        private final DeclaredType type;
+        private final Map<String, TypeRef> properties;
+
+        Model(DeclaredType type, Map<String, TypeRef> properties) {
+            this.type = type;
+            this.properties = properties;
+        }
+    }
+
+    private static List<String> getEnumValues(TypeElement enumTypeElement) {
+        return enumTypeElement.getEnclosedElements().stream()
+                .filter(element -> element.getKind().equals(ElementKind.ENUM_CONSTANT))
+                .map(Object::toString)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * @param classDoc
+     * @return the qualified names of the class, of its super classes and of all the interfaces they implement.
+     */
+    private Set<String> getSupertypes(TypeElement classDoc) {
+        Set<String> names = supertypes.get(classDoc);
+        if (names != null) {
+            return names;
+        }
+
+        names = new HashSet<>();
+        Deque<TypeElement> pendingTypes = new ArrayDeque<>();
+        pendingTypes.add(classDoc);
+        while (!pendingTypes.isEmpty()) {
+            TypeElement current = pendingTypes.poll();
+            if (!names.add(current.getQualifiedName().toString())) {
+                continue;
+            }
+
+            TypeMirror superClass = current.getSuperclass();
+            if (superClass != null && !(superClass instanceof NoType) && asTypeElement(superClass) != null) {
+                pendingTypes.add(asTypeElement(superClass));
+            }
+            for (TypeMirror iface : current.getInterfaces()) {
+                if (asTypeElement(iface) != null) {
+                    pendingTypes.add(asTypeElement(iface));
+                }
+            }
+        }
+
+        Set<String> previous = supertypes.putIfAbsent(classDoc, unmodifiableSet(names));
+        return (previous == null ? supertypes.get(classDoc) : previous);
+    }
+}
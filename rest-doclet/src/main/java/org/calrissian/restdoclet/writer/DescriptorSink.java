@@ -0,0 +1,61 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.writer;
+
+import org.calrissian.restdoclet.model.ClassDescriptor;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Receives the class descriptors one at a time, as soon as they are collected.
+ */
+public interface DescriptorSink extends Closeable {
+
+    public void accept(ClassDescriptor classDescriptor) throws IOException;
+
+    /**
+     * Called once every class descriptor has been accepted.
+     * @throws IOException
+     */
+    @Override
+    default void close() throws IOException {
+    }
+
+    /**
+     * @param first
+     * @param second
+     * @return a sink pushing the descriptors to both sinks.
+     */
+    static DescriptorSink tee(DescriptorSink first, DescriptorSink second) {
+        return new DescriptorSink() {
+            @Override
+            public void accept(ClassDescriptor classDescriptor) throws IOException {
+                first.accept(classDescriptor);
+                second.accept(classDescriptor);
+            }
+
+            @Override
+            public void close() throws IOException {
+                try {
+                    first.close();
+                } finally {
+                    second.close();
+                }
+            }
+        };
+    }
+}
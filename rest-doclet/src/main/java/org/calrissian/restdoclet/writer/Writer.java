@@ -17,6 +17,7 @@ package org.calrissian.restdoclet.writer;
 
 
 import org.calrissian.restdoclet.Configuration;
+import org.calrissian.restdoclet.metrics.RunMetrics;
 import org.calrissian.restdoclet.model.ClassDescriptor;
 
 import java.io.IOException;
@@ -24,6 +25,33 @@ import java.util.Collection;
 
 public interface Writer {
 
-    public void write(Collection<ClassDescriptor> classDescriptors, Configuration config) throws IOException;
+    /**
+     * Starts the output.  The class descriptors are pushed to the returned sink as they are collected, and the
+     * output is complete once the sink is closed.
+     * @param config
+     * @return
+     * @throws IOException
+     */
+    public DescriptorSink open(Configuration config) throws IOException;
+
+    /**
+     * Same as {@link #open(Configuration)}, counting the bytes written in the metrics and measuring the work the
+     * writer does on its own threads.
+     * @param config
+     * @param metrics
+     * @return
+     * @throws IOException
+     */
+    public default DescriptorSink open(Configuration config, RunMetrics metrics) throws IOException {
+        return open(config);
+    }
+
+    public default void write(Collection<ClassDescriptor> classDescriptors, Configuration config) throws IOException {
+        try (DescriptorSink sink = open(config)) {
+            for (ClassDescriptor classDescriptor : classDescriptors) {
+                sink.accept(classDescriptor);
+            }
+        }
+    }
 
 }
@@ -0,0 +1,256 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.writer.openapi;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.calrissian.restdoclet.Configuration;
+import org.calrissian.restdoclet.metrics.Events;
+import org.calrissian.restdoclet.metrics.RunMetrics;
+import org.calrissian.restdoclet.model.ClassDescriptor;
+import org.calrissian.restdoclet.model.Endpoint;
+import org.calrissian.restdoclet.model.PathVar;
+import org.calrissian.restdoclet.model.QueryParam;
+import org.calrissian.restdoclet.model.RequestBody;
+import org.calrissian.restdoclet.model.RouteTrie;
+import org.calrissian.restdoclet.model.TypeRef;
+import org.calrissian.restdoclet.writer.DescriptorSink;
+import org.calrissian.restdoclet.writer.Writer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static org.calrissian.restdoclet.util.CommonUtils.isEmpty;
+
+/**
+ * Writes a single OpenAPI 3 document.  The types of the request bodies, parameters and responses are described
+ * once under components/schemas, the operations reference them.
+ *
+ * OpenAPI path templates have no regular expressions: a variable such as {id:[0-9]+} is written {id}, so the
+ * path is merged with the other mappings of /orders/{id}, and its regular expression becomes the pattern of the
+ * parameter when the parameter is a string.
+ */
+public class OpenApiWriter implements Writer {
+    public static final String OUTPUT_OPTION_NAME = "openapi";
+
+    private static final String OPENAPI_VERSION = "3.0.3";
+    private static final String DOCUMENT = "./openapi.json";
+    private static final String DEFAULT_API_VERSION = "1.0";
+    private static final String ANY_MEDIA_TYPE = "*/*";
+
+    private static final ObjectMapper mapper = new ObjectMapper()
+            .setSerializationInclusion(JsonInclude.Include.NON_NULL);
+    private static final ObjectWriter writer = mapper.writerWithDefaultPrettyPrinter();
+
+    @Override
+    public DescriptorSink open(Configuration config) {
+        return open(config, RunMetrics.disabled());
+    }
+
+    @Override
+    public DescriptorSink open(Configuration config, RunMetrics metrics) {
+        return new OpenApiSink(config, metrics);
+    }
+
+    /**
+     * Adds the endpoints of each class to the routes as the classes are accepted.  A path can be shared by
+     * several classes, so the path items are built and the document written once every class has been accepted.
+     */
+    private static class OpenApiSink implements DescriptorSink {
+
+        private final Configuration config;
+        private final RunMetrics metrics;
+        private final RouteTrie<Endpoint> routes = new RouteTrie<>();
+        private final SchemaRegistry schemas = new SchemaRegistry();
+
+        OpenApiSink(Configuration config, RunMetrics metrics) {
+            this.config = config;
+            this.metrics = metrics;
+        }
+
+        @Override
+        public void accept(ClassDescriptor classDescriptor) {
+            for (Endpoint endpoint : classDescriptor.getEndpoints()) {
+                routes.add(templatePath(endpoint.getPath(), null), endpoint);
+            }
+        }
+
+        private ObjectNode getPathItem(List<Endpoint> endpoints) {
+            ObjectNode pathItem = mapper.createObjectNode();
+            for (Endpoint endpoint : endpoints) {
+                String method = endpoint.getHttpMethod().toLowerCase(Locale.ROOT);
+                //The first class mapping a method to a path documents it.
+                if (!pathItem.has(method)) {
+                    pathItem.set(method, getOperation(endpoint));
+                }
+            }
+            return pathItem;
+        }
+
+        private ObjectNode getOperation(Endpoint endpoint) {
+            ObjectNode operation = mapper.createObjectNode();
+            if (!isEmpty(endpoint.getShortDescription())) {
+                operation.put("summary", endpoint.getShortDescription());
+            }
+            if (!isEmpty(endpoint.getDescription())) {
+                operation.put("description", endpoint.getDescription());
+            }
+
+            if (!isEmpty(endpoint.getPathVars()) || !isEmpty(endpoint.getQueryParams())) {
+                ArrayNode parameters = operation.putArray("parameters");
+                Map<String, String> patterns = new HashMap<>();
+                templatePath(endpoint.getPath(), patterns);
+                for (PathVar pathVar : endpoint.getPathVars()) {
+                    addParameter(parameters, "path", pathVar.getName(), pathVar.getDescription(), true, pathVar.getType(),
+                            patterns.get(pathVar.getName()));
+                }
+                for (QueryParam queryParam : endpoint.getQueryParams()) {
+                    addParameter(parameters, "query", queryParam.getName(), queryParam.getDescription(),
+                            queryParam.isRequired(), queryParam.getType(), null);
+                }
+            }
+
+            RequestBody requestBody = endpoint.getRequestBody();
+            if (requestBody != null) {
+                ObjectNode body = operation.putObject("requestBody");
+                if (!isEmpty(requestBody.getDescription())) {
+                    body.put("description", requestBody.getDescription());
+                }
+                body.put("required", true);
+                body.set("content", getContent(endpoint.getConsumes(), requestBody.getType()));
+            }
+
+            ObjectNode response = operation.putObject("responses").putObject("200");
+            response.put("description", isEmpty(endpoint.getShortDescription()) ? "Success" : endpoint.getShortDescription());
+            if (endpoint.getType() != null && endpoint.getType().getKind() != TypeRef.Kind.VOID) {
+                response.set("content", getContent(endpoint.getProduces(), endpoint.getType()));
+            }
+            return operation;
+        }
+
+        private void addParameter(ArrayNode parameters, String in, String name, String description, boolean required,
+                                  TypeRef type, String pattern) {
+            ObjectNode parameter = parameters.addObject();
+            parameter.put("name", name);
+            parameter.put("in", in);
+            if (!isEmpty(description)) {
+                parameter.put("description", description);
+            }
+            parameter.put("required", required);
+            ObjectNode schema = schemas.schema(type);
+            if (schema != null) {
+                //Only a string is validated against a pattern.
+                if (pattern != null && "string".equals(schema.path("type").asText())) {
+                    schema.put("pattern", "^" + pattern + "$");
+                }
+                parameter.set("schema", schema);
+            }
+        }
+
+        private ObjectNode getContent(Collection<String> mediaTypes, TypeRef type) {
+            ObjectNode content = mapper.createObjectNode();
+            ObjectNode schema = schemas.schema(type);
+            for (String mediaType : isEmpty(mediaTypes) ? Collections.singleton(ANY_MEDIA_TYPE) : mediaTypes) {
+                ObjectNode media = content.putObject(mediaType);
+                if (schema != null) {
+                    media.set("schema", schema);
+                }
+            }
+            return content;
+        }
+
+        @Override
+        @SuppressWarnings("try")
+        public void close() throws IOException {
+            ObjectNode document = mapper.createObjectNode();
+            document.put("openapi", OPENAPI_VERSION);
+
+            ObjectNode info = document.putObject("info");
+            info.put("title", config.getDocumentTitle());
+            info.put("version", config.getApiVersion() == null ? DEFAULT_API_VERSION : config.getApiVersion());
+            document.putArray("servers").addObject().put("url", config.getPath());
+
+            ObjectNode paths = document.putObject("paths");
+            int endpoints = 0;
+            for (RouteTrie.Node<Endpoint> route : routes.routes()) {
+                paths.set(route.getPath(), getPathItem(route.getValues()));
+                endpoints += route.getValues().size();
+            }
+
+            ObjectNode components = document.putObject("components").putObject("schemas");
+            for (Map.Entry<String, ObjectNode> entry : schemas.getComponents().entrySet()) {
+                components.set(entry.getKey(), entry.getValue());
+            }
+
+            try (Events.Span span = Events.fileWrite(OUTPUT_OPTION_NAME, DOCUMENT, null, endpoints);
+                 OutputStream out = metrics.countBytes(Files.newOutputStream(Paths.get(DOCUMENT)))) {
+                writer.writeValue(out, document);
+            }
+        }
+    }
+
+    /**
+     * @param path a path template, whose variables can hold a regular expression such as {id:[0-9]+}.
+     * @param patterns receives the regular expression of each variable which has one, by name.  Can be null.
+     * @return the template with the regular expressions left out, such as /orders/{id}.
+     */
+    private static String templatePath(String path, Map<String, String> patterns) {
+        if (path.indexOf(':') < 0) {
+            return path;
+        }
+
+        StringBuilder template = new StringBuilder(path.length());
+        int start = 0;
+        int open;
+        while ((open = path.indexOf('{', start)) >= 0) {
+            //Braces may be nested within the regular expression.
+            int depth = 0;
+            int close = open;
+            for (; close < path.length(); close++) {
+                char c = path.charAt(close);
+                if (c == '{') {
+                    depth++;
+                } else if (c == '}' && --depth == 0) {
+                    break;
+                }
+            }
+            if (close == path.length()) {
+                break;
+            }
+
+            String variable = path.substring(open + 1, close);
+            int colon = variable.indexOf(':');
+            String name = (colon < 0 ? variable : variable.substring(0, colon)).trim();
+            if (colon >= 0 && patterns != null) {
+                patterns.put(name, variable.substring(colon + 1).trim());
+            }
+            template.append(path, start, open).append('{').append(name).append('}');
+            start = close + 1;
+        }
+        return template.append(path, start, path.length()).toString();
+    }
+}
@@ -0,0 +1,232 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.writer.openapi;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.calrissian.restdoclet.model.TypeRef;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.Date;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The schemas of the types used by the endpoints.  The simple types are written inline, every other type is
+ * registered once under components/schemas and referenced from the operations.  The schemas of the model
+ * properties are built from a work list, so models referring to each other are registered once each, whatever
+ * the depth of the graph.
+ */
+class SchemaRegistry {
+
+    private static final String REF_PREFIX = "#/components/schemas/";
+
+    private final JsonNodeFactory nodes = JsonNodeFactory.instance;
+
+    //Component name of each registered type, by qualified name including the type arguments of the models.
+    private final Map<String, String> names = new HashMap<>();
+    private final Set<String> usedNames = new HashSet<>();
+    private final Map<String, ObjectNode> components = new LinkedHashMap<>();
+
+    //Registered models whose properties are not described yet.
+    private final Deque<Model> pending = new ArrayDeque<>();
+
+    /**
+     * @param type
+     * @return the schema of the type, null if the type has no content such as void.
+     */
+    ObjectNode schema(TypeRef type) {
+        ObjectNode schema = getSchema(type);
+        while (!pending.isEmpty()) {
+            Model model = pending.poll();
+            for (Map.Entry<String, TypeRef> property : model.type.getProperties().entrySet()) {
+                ObjectNode propertySchema = getSchema(property.getValue());
+                model.properties.set(property.getKey(), propertySchema == null ? nodes.objectNode() : propertySchema);
+            }
+        }
+        return schema;
+    }
+
+    private ObjectNode getSchema(TypeRef type) {
+        if (type == null || type.getKind() == TypeRef.Kind.VOID) {
+            return null;
+        }
+
+        if (type.getKind().isContainer()) {
+            ObjectNode schema = nodes.objectNode();
+            schema.put("type", "array");
+            ObjectNode items = getSchema(type.getElementType());
+            schema.set("items", items == null ? nodes.objectNode() : items);
+            if (type.getKind() == TypeRef.Kind.SET) {
+                schema.put("uniqueItems", true);
+            }
+            return schema;
+        }
+
+        ObjectNode simple = simpleSchema(type);
+        if (simple != null) {
+            return simple;
+        }
+
+        ObjectNode ref = nodes.objectNode();
+        ref.put("$ref", REF_PREFIX + register(type));
+        return ref;
+    }
+
+    /**
+     * @return the registered schemas, by component name.
+     */
+    Map<String, ObjectNode> getComponents() {
+        return components;
+    }
+
+    /**
+     * @param type
+     * @return the component name of the type, registering its schema the first time.
+     */
+    private String register(TypeRef type) {
+        String name = names.get(type.getQualifiedName());
+        if (name != null) {
+            return name;
+        }
+
+        name = componentName(type.getQualifiedName());
+        names.put(type.getQualifiedName(), name);
+
+        ObjectNode schema = nodes.objectNode();
+        if (type.getKind() == TypeRef.Kind.ENUM) {
+            schema.put("type", "string");
+            ArrayNode values = schema.putArray("enum");
+            for (String value : type.getEnumConstants()) {
+                values.add(value);
+            }
+        } else {
+            schema.put("type", "object");
+            if (type.isModel()) {
+                pending.add(new Model(type, schema.putObject("properties")));
+            }
+        }
+        components.put(name, schema);
+        return name;
+    }
+
+    /**
+     * The simple name of the class, followed by the simple names of its type arguments and by a number when
+     * another class has the same name, Page&lt;com.acme.User&gt; giving PageUser.
+     */
+    private String componentName(String qualifiedName) {
+        StringBuilder base = new StringBuilder();
+        for (String part : qualifiedName.split("[<>,]")) {
+            base.append(part, Math.max(part.lastIndexOf('.'), part.lastIndexOf('$')) + 1, part.length());
+        }
+        //Component names are restricted to letters, digits, '.', '-' and '_'.
+        String simpleName = base.toString().replaceAll("[^A-Za-z0-9._-]", "_");
+
+        String name = simpleName;
+        for (int i = 2; !usedNames.add(name); i++) {
+            name = simpleName + i;
+        }
+        return name;
+    }
+
+    /**
+     * @param type
+     * @return the inline schema of the primitives, the JDK value types and the untyped objects, null for the
+     * types registered as components.
+     */
+    private ObjectNode simpleSchema(TypeRef type) {
+        String name = type.getQualifiedName();
+
+        if (type.getKind() == TypeRef.Kind.PRIMITIVE) {
+            switch (name) {
+                case "boolean":
+                    return schema("boolean", null);
+                case "long":
+                    return schema("integer", "int64");
+                case "float":
+                    return schema("number", "float");
+                case "double":
+                    return schema("number", "double");
+                case "char":
+                    return schema("string", null);
+                default:
+                    return schema("integer", "int32");
+            }
+        }
+
+        if (name.equals(String.class.getName()) || name.equals(Character.class.getName()))
+            return schema("string", null);
+
+        if (name.equals(Boolean.class.getName()))
+            return schema("boolean", null);
+
+        if (name.equals(Integer.class.getName()) || name.equals(Short.class.getName()) || name.equals(Byte.class.getName()))
+            return schema("integer", "int32");
+
+        if (name.equals(Long.class.getName()))
+            return schema("integer", "int64");
+
+        if (name.equals(BigInteger.class.getName()))
+            return schema("integer", null);
+
+        if (name.equals(Float.class.getName()))
+            return schema("number", "float");
+
+        if (name.equals(Double.class.getName()))
+            return schema("number", "double");
+
+        if (name.equals(BigDecimal.class.getName()))
+            return schema("number", null);
+
+        if (name.equals(Date.class.getName()))
+            return schema("string", "date-time");
+
+        //Maps, Object and the other JDK classes say nothing about the model.
+        if (type.getKind() == TypeRef.Kind.OBJECT && name.startsWith("java."))
+            return schema("object", null);
+
+        return null;
+    }
+
+    private ObjectNode schema(String type, String format) {
+        ObjectNode schema = nodes.objectNode();
+        schema.put("type", type);
+        if (format != null) {
+            schema.put("format", format);
+        }
+        return schema;
+    }
+
+    /**
+     * A registered model and the node receiving the schemas of its properties.
+     */
+    private static class Model {
+        private final TypeRef type;
+        private final ObjectNode properties;
+
+        Model(TypeRef type, ObjectNode properties) {
+            this.type = type;
+            this.properties = properties;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.writer.routes;
+
+import org.calrissian.restdoclet.metrics.RunMetrics;
+import org.calrissian.restdoclet.model.ClassDescriptor;
+import org.calrissian.restdoclet.model.Endpoint;
+import org.calrissian.restdoclet.model.RouteTrie;
+import org.calrissian.restdoclet.writer.DescriptorSink;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Saves the routes of the collected endpoints to a route table, read at runtime by the RouteTable matcher of
+ * the rest-doclet-routes library to map request paths back to their templates.
+ * <p>
+ * The table is a UTF-8 text file.  The first line is the {@link #HEADER}, followed by one line per route and
+ * http method: the method, a space and the path template.  The routes are grouped by prefix.
+ */
+public class RouteTableWriter implements DescriptorSink {
+
+    public static final String HEADER = "# rest-doclet routes 1";
+
+    private final File file;
+    private final RunMetrics metrics;
+    private final RouteTrie<String> routes = new RouteTrie<>();
+
+    public RouteTableWriter(File file) {
+        this(file, RunMetrics.disabled());
+    }
+
+    /**
+     * @param file
+     * @param metrics counting the bytes of the table.
+     */
+    public RouteTableWriter(File file, RunMetrics metrics) {
+        this.file = file;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void accept(ClassDescriptor classDescriptor) {
+        for (Endpoint endpoint : classDescriptor.getEndpoints()) {
+            routes.add(endpoint.getPath(), endpoint.getHttpMethod().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+            throw new IOException("Unable to create directory: " + parent);
+        }
+
+        try (BufferedWriter out = new BufferedWriter(new OutputStreamWriter(
+                metrics.countBytes(Files.newOutputStream(file.toPath())), StandardCharsets.UTF_8))) {
+            out.write(HEADER);
+            out.write('\n');
+            for (RouteTrie.Node<String> route : routes.routes()) {
+                String path = route.getPath();
+                //Several classes may map the same method to a path.
+                Set<String> methods = new LinkedHashSet<>(route.getValues());
+                for (String method : methods) {
+                    out.write(method);
+                    out.write(' ');
+                    out.write(path);
+                    out.write('\n');
+                }
+            }
+        }
+    }
+}
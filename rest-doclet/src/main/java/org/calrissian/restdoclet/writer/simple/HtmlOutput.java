@@ -0,0 +1,237 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.writer.simple;
+
+import org.calrissian.restdoclet.metrics.RunMetrics;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Buffered UTF-8 output of the html page.  Static markup is encoded once with {@link #fragment(String)}, text
+ * is encoded straight into the buffer, without creating intermediate strings or byte arrays.
+ */
+class HtmlOutput implements Closeable {
+
+    private static final int BUFFER_SIZE = 256 * 1024;
+    private static final byte[] NULL = fragment("null");
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer;
+    private final RunMetrics metrics;
+
+    /**
+     * @param channel
+     * @param metrics counting the bytes written to the channel, as an output of the run.
+     */
+    HtmlOutput(WritableByteChannel channel, RunMetrics metrics) {
+        this(channel, BUFFER_SIZE, metrics);
+    }
+
+    /**
+     * @param channel
+     * @param bufferSize a small buffer suits a channel which is itself in memory.
+     */
+    HtmlOutput(WritableByteChannel channel, int bufferSize) {
+        this(channel, bufferSize, RunMetrics.disabled());
+    }
+
+    private HtmlOutput(WritableByteChannel channel, int bufferSize, RunMetrics metrics) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocate(bufferSize);
+        this.metrics = metrics;
+    }
+
+    /**
+     * @param markup
+     * @return the UTF-8 encoding of some static markup.
+     */
+    static byte[] fragment(String markup) {
+        return markup.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes a pre-encoded fragment.
+     * @param fragment
+     * @throws IOException
+     */
+    void write(byte[] fragment) throws IOException {
+        if (fragment.length > buffer.remaining()) {
+            flush();
+            if (fragment.length > buffer.capacity()) {
+                writeFully(ByteBuffer.wrap(fragment));
+                return;
+            }
+        }
+        buffer.put(fragment);
+    }
+
+    /**
+     * Writes the remaining bytes of a buffer, such as a section rendered in memory.
+     * @param bytes
+     * @throws IOException
+     */
+    void write(ByteBuffer bytes) throws IOException {
+        if (bytes.remaining() > buffer.remaining()) {
+            flush();
+            if (bytes.remaining() > buffer.capacity()) {
+                writeFully(bytes);
+                return;
+            }
+        }
+        buffer.put(bytes);
+    }
+
+    /**
+     * Writes text which is already html, such as the javadoc descriptions.  A null value is written as "null".
+     * @param text
+     * @throws IOException
+     */
+    void writeRaw(String text) throws IOException {
+        if (text == null) {
+            write(NULL);
+            return;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            i = writeChar(text, i);
+        }
+    }
+
+    /**
+     * Writes plain text, escaping the characters which have a meaning in html.  A null value is written as "null".
+     * @param text
+     * @throws IOException
+     */
+    void writeEscaped(String text) throws IOException {
+        if (text == null) {
+            write(NULL);
+            return;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '&':
+                    writeAscii("&amp;");
+                    break;
+                case '<':
+                    writeAscii("&lt;");
+                    break;
+                case '>':
+                    writeAscii("&gt;");
+                    break;
+                case '"':
+                    writeAscii("&quot;");
+                    break;
+                case '\'':
+                    writeAscii("&#39;");
+                    break;
+                default:
+                    i = writeChar(text, i);
+            }
+        }
+    }
+
+    private void writeAscii(String entity) throws IOException {
+        ensure(entity.length());
+        for (int i = 0; i < entity.length(); i++) {
+            buffer.put((byte) entity.charAt(i));
+        }
+    }
+
+    /**
+     * Encodes the character at the index, or the surrogate pair starting there.
+     * @return the index of the last character consumed.
+     */
+    private int writeChar(String text, int i) throws IOException {
+        char c = text.charAt(i);
+        if (c < 0x80) {
+            if (!buffer.hasRemaining()) {
+                flush();
+            }
+            buffer.put((byte) c);
+            return i;
+        }
+
+        ensure(4);
+        if (c < 0x800) {
+            buffer.put((byte) (0xC0 | (c >> 6)));
+            buffer.put((byte) (0x80 | (c & 0x3F)));
+        } else if (Character.isHighSurrogate(c) && i + 1 < text.length() && Character.isLowSurrogate(text.charAt(i + 1))) {
+            int codePoint = Character.toCodePoint(c, text.charAt(++i));
+            buffer.put((byte) (0xF0 | (codePoint >> 18)));
+            buffer.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+            buffer.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+            buffer.put((byte) (0x80 | (codePoint & 0x3F)));
+        } else if (Character.isSurrogate(c)) {
+            //Unpaired surrogates are replaced, like String.getBytes does.
+            buffer.put((byte) '?');
+        } else {
+            buffer.put((byte) (0xE0 | (c >> 12)));
+            buffer.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+            buffer.put((byte) (0x80 | (c & 0x3F)));
+        }
+        return i;
+    }
+
+    private void ensure(int length) throws IOException {
+        if (buffer.remaining() < length) {
+            flush();
+        }
+    }
+
+    /**
+     * Appends the whole content of a file, after the buffered output.  The bytes are moved by the channels,
+     * without going through the heap when the platform allows it.
+     * @param source
+     * @throws IOException
+     */
+    void transferFrom(FileChannel source) throws IOException {
+        flush();
+        long position = 0;
+        long size = source.size();
+        while (position < size) {
+            position += source.transferTo(position, size - position, channel);
+        }
+        metrics.count(RunMetrics.BYTES_WRITTEN, size);
+    }
+
+    void flush() throws IOException {
+        buffer.flip();
+        writeFully(buffer);
+        buffer.clear();
+    }
+
+    private void writeFully(ByteBuffer bytes) throws IOException {
+        int length = bytes.remaining();
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        metrics.count(RunMetrics.BYTES_WRITTEN, length);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+}
@@ -16,36 +16,67 @@
 package org.calrissian.restdoclet.writer.simple;
 
 import org.calrissian.restdoclet.Configuration;
+import org.calrissian.restdoclet.metrics.Events;
+import org.calrissian.restdoclet.metrics.RunMetrics;
 import org.calrissian.restdoclet.model.ClassDescriptor;
-import org.calrissian.restdoclet.model.Endpoint;
+import org.calrissian.restdoclet.model.EndpointGroup;
 import org.calrissian.restdoclet.model.PathVar;
 import org.calrissian.restdoclet.model.QueryParam;
+import org.calrissian.restdoclet.writer.DescriptorSink;
 
 import java.io.*;
-import java.util.Collection;
-
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
 import static org.calrissian.restdoclet.util.CommonUtils.*;
+import static org.calrissian.restdoclet.writer.simple.HtmlOutput.fragment;
 
 public class SimpleHtmlWriter implements org.calrissian.restdoclet.writer.Writer {
     public static final String OUTPUT_OPTION_NAME = "legacy";
     private static final String DEFAULT_STYLESHEET = "default-stylesheet.css";
+    private static final String INDEX_PAGE = "index.html";
+
+    @Override
+    public DescriptorSink open(Configuration config) throws IOException {
+        return open(config, RunMetrics.disabled());
+    }
 
     @Override
-    public void write(Collection<ClassDescriptor> classDescriptors, Configuration config) throws IOException {
+    public DescriptorSink open(Configuration config, RunMetrics metrics) throws IOException {
 
         if (config.isdefaultStyleSheet())
-            generateStyleSheet(config);
+            generateStyleSheet(config, metrics);
+
+        if (config.isSharded())
+            return new ShardedSink(config, metrics);
+
+        if (config.getThreads() > 1)
+            return new FragmentSink(config, metrics);
 
-        writeHtml(classDescriptors, config);
+        return new SinglePageSink(config, metrics);
     }
 
-    private static void generateStyleSheet(Configuration config) throws IOException {
+    private static void generateStyleSheet(Configuration config, RunMetrics metrics) throws IOException {
         InputStream in = null;
         OutputStream out = null;
         try {
 
             in = Thread.currentThread().getContextClassLoader().getResourceAsStream(DEFAULT_STYLESHEET);
-            out = new FileOutputStream(new File(config.getStyleSheet()));
+            out = metrics.countBytes(new FileOutputStream(new File(config.getStyleSheet())));
 
             copy(in, out);
 
@@ -54,139 +85,475 @@ public class SimpleHtmlWriter implements org.calrissian.restdoclet.writer.Writer
         }
     }
 
-    private static void writeHtml(Collection<ClassDescriptor> classDescriptors, Configuration config) throws IOException {
+    //Static markup of the page, encoded once.
+    private static final byte[] PAGE_START = fragment(
+            "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"no\" ?>\n" +
+            "<!DOCTYPE html PUBLIC \"-//W3C//DTD XHTML 1.0 Strict//EN\"\n" +
+            "    \"http://www.w3.org/TR/xhtml1/DTD/xhtml1-strict.dtd\">\n" +
+            "<html xmlns=\"http://www.w3.org/1999/xhtml\">\n" +
+            "<head>\n" +
+            "<meta http-equiv=\"Content-Type\" content=\"text/html; charset=UTF-8\" />\n" +
+            "<title>");
+    private static final byte[] TITLE_END = fragment("</title>\n<link rel='stylesheet' type='text/css' href=' ");
+    private static final byte[] STYLESHEET_END = fragment(
+            "'/>\n" +
+            "</head>\n" +
+            "<body>\n" +
+            "<div id=\"wrapper\">\n" +
+            "<div id=\"container\">\n" +
+            "<h1>");
+    private static final byte[] HEADER_END = fragment("</h1>\n<hr />\n");
+    private static final byte[] PAGE_END = fragment("</div>\n</div>\n</body>\n</html>\n");
+
+    private static final byte[] CLASS_START = fragment("<div id='");
+    private static final byte[] CLASS_NAME = fragment("'>\n<h3>");
+    private static final byte[] CLASS_DESCRIPTION = fragment("</h3>\n<div class=\"bean_description\">");
+    private static final byte[] CLASS_DESCRIPTION_END = fragment("</div>");
+    private static final byte[] CLASS_END = fragment("</div>\n<hr />\n");
+
+    private static final byte[] ENDPOINT_START = fragment(
+            "<table class=\"endpoint\">\n" +
+            "<colgroup>\n" +
+            "<col style=\"width: 10%;\" />\n" +
+            "<col style=\"width: 90%;\" />\n" +
+            "</colgroup>\n" +
+            "<tr>\n" +
+            "<th>Method</th>\n" +
+            "<th>Path</th>\n" +
+            "</tr>\n" +
+            "<tr>\n" +
+            "<td class=\"field_format\">");
+    private static final byte[] ENDPOINT_PATH = fragment("</td>\n<td class=\"field_format\">");
+    private static final byte[] ENDPOINT_INFO = fragment(
+            "</td>\n" +
+            "</tr>\n" +
+            "<tr>\n" +
+            "<th colspan=\"2\">REST Point Information</th>\n" +
+            "</tr>\n" +
+            "<tr>\n" +
+            "<td colspan=\"2\">\n");
+    private static final byte[] ENDPOINT_DESCRIPTION = fragment(
+            "<div class=\"info_title\">Description</div>\n" +
+            "<div class=\"info_text\">");
+    private static final byte[] ENDPOINT_END = fragment("</div>\n</td>\n</tr>\n</table>\n");
+
+    private static final byte[] PATH_VARS_START = fragment(
+            "<div class=\"info_title\">Path Variables</div>\n<table width=\"100%\" class=\"list\">\n");
+    private static final byte[] QUERY_PARAMS_START = fragment(
+            "<div class=\"info_title\">Query Parameters</div>\n<table width=\"100%\" class=\"list\">\n");
+    private static final byte[] REQUEST_BODY_START = fragment(
+            "<div class=\"info_title\">Request Body</div>\n<table width=\"100%\" class=\"list\">\n");
+    private static final byte[] CONSUMES_START = fragment(
+            "<div class=\"info_title\">Consumes</div>\n<table width=\"100%\" class=\"list\">\n");
+    private static final byte[] PRODUCES_START = fragment(
+            "<div class=\"info_title\">Produces</div>\n<table width=\"100%\" class=\"list\">\n");
+    private static final byte[] LIST_END = fragment("</table>\n");
+    private static final byte[] ROW_START = fragment("<tr>\n<td class=\"code_format\">");
+    private static final byte[] ROW_DESCRIPTION = fragment("</td>\n<td class=\"descr_format\">");
+    private static final byte[] ROW_END = fragment("</td>\n</tr>\n");
+    private static final byte[] REQUIRED = fragment(" (required)");
+
+    private static final byte[] INDEX_LINK = fragment("<p><a href=\"" + INDEX_PAGE + "\">Index</a></p>\n<hr />\n");
+    private static final byte[] INDEX_START = fragment(
+            "<table width=\"100%\" class=\"list\">\n" +
+            "<tr>\n" +
+            "<th>Class</th>\n" +
+            "<th>Endpoints</th>\n" +
+            "</tr>\n");
+    private static final byte[] INDEX_ROW_START = fragment("<tr>\n<td class=\"code_format\"><a href='");
+    private static final byte[] INDEX_ROW_NAME = fragment("'>");
+    private static final byte[] INDEX_ROW_COUNT = fragment("</a></td>\n<td class=\"descr_format\">");
+    private static final byte[] INDEX_END = fragment("</table>\n<p>");
+    private static final byte[] INDEX_TOTAL_CLASSES = fragment(" endpoints in ");
+    private static final byte[] INDEX_TOTAL_END = fragment(" classes</p>\n");
+
+    /**
+     * Writes the head of a page, up to the opening of the main heading.
+     */
+    private static void writePageStart(HtmlOutput out, Configuration config, String title) throws IOException {
+        out.write(PAGE_START);
+        out.writeEscaped(title);
+        out.write(TITLE_END);
+        out.writeEscaped(config.getStyleSheet());
+        out.write(STYLESHEET_END);
+    }
+
+    private static void writeClass(HtmlOutput out, ClassDescriptor classDescriptor) throws IOException {
+        out.write(CLASS_START);
+        out.writeEscaped(classDescriptor.getName().replace(" ", "_"));
+        out.write(CLASS_NAME);
+        out.writeEscaped(classDescriptor.getName());
+        out.write(CLASS_DESCRIPTION);
+        out.writeRaw(classDescriptor.getDescription());
+        out.write(CLASS_DESCRIPTION_END);
+
+        //Same order as ClassDescriptor.getEndpoints(), without creating the endpoints.
+        for (EndpointGroup group : classDescriptor.getEndpointGroups()) {
+            for (String httpMethod : group.getHttpMethods()) {
+                for (String path : group.getPaths()) {
+                    writeEndpoint(out, group, httpMethod, path);
+                }
+            }
+        }
+
+        out.write(CLASS_END);
+    }
+
+    private static void writeEndpoint(HtmlOutput out, EndpointGroup endpoint, String httpMethod, String path) throws IOException {
+        out.write(ENDPOINT_START);
+        out.writeEscaped(httpMethod);
+        out.write(ENDPOINT_PATH);
+        out.writeEscaped(path);
+        out.write(ENDPOINT_INFO);
+
+        if (!isEmpty(endpoint.getPathVars())) {
+            out.write(PATH_VARS_START);
+            for (PathVar pathVar : endpoint.getPathVars()) {
+                out.write(ROW_START);
+                out.writeEscaped(pathVar.getName());
+                out.write(ROW_DESCRIPTION);
+                out.writeRaw(pathVar.getDescription());
+                out.write(ROW_END);
+            }
+            out.write(LIST_END);
+        }
+
+        if (!isEmpty(endpoint.getQueryParams())) {
+            out.write(QUERY_PARAMS_START);
+            for (QueryParam queryParam : endpoint.getQueryParams()) {
+                out.write(ROW_START);
+                out.writeEscaped(queryParam.getName());
+                if (queryParam.isRequired())
+                    out.write(REQUIRED);
+                out.write(ROW_DESCRIPTION);
+                out.writeRaw(queryParam.getDescription());
+                out.write(ROW_END);
+            }
+            out.write(LIST_END);
+        }
+
+        if (endpoint.getRequestBody() != null &&
+                !isEmpty(endpoint.getRequestBody().getDescription())) {
+            out.write(REQUEST_BODY_START);
+            out.write(ROW_START);
+            out.writeEscaped(endpoint.getRequestBody().getName());
+            out.write(ROW_DESCRIPTION);
+            out.writeRaw(endpoint.getRequestBody().getDescription());
+            out.write(ROW_END);
+            out.write(LIST_END);
+        }
+
+        if (!isEmpty(endpoint.getConsumes())) {
+            out.write(CONSUMES_START);
+            for (String acceptType : endpoint.getConsumes()) {
+                out.write(ROW_START);
+                out.writeEscaped(acceptType);
+                out.write(ROW_END);
+            }
+            out.write(LIST_END);
+        }
+
+        if (!isEmpty(endpoint.getProduces())) {
+            out.write(PRODUCES_START);
+            for (String outputType : endpoint.getProduces()) {
+                out.write(ROW_START);
+                out.writeEscaped(outputType);
+                out.write(ROW_END);
+            }
+            out.write(LIST_END);
+        }
 
-        PrintWriter out = null;
+        out.write(ENDPOINT_DESCRIPTION);
+        out.writeRaw(endpoint.getDescription());
+        out.write(ENDPOINT_END);
+    }
 
+    private static HtmlOutput openPage(String fileName, RunMetrics metrics) throws IOException {
+        return new HtmlOutput(FileChannel.open(Paths.get(fileName), WRITE, CREATE, TRUNCATE_EXISTING), metrics);
+    }
+
+    /**
+     * Waits for a page, or a part of a page, written on a pool.
+     * @param future
+     * @param message the message of the exception thrown if the task failed with a checked exception other
+     *                than an IOException.
+     * @throws IOException if the task failed to write.
+     */
+    private static void await(Future<?> future, String message) throws IOException {
         try {
-            out = new PrintWriter(new File(".", "index.html"));
-
-            out.println("<?xml version=\"1.0\" encoding=\"ISO-8859-1\" standalone=\"no\" ?>");
-            out.println("<!DOCTYPE html PUBLIC \"-//W3C//DTD XHTML 1.0 Strict//EN\"");
-            out.println("    \"http://www.w3.org/TR/xhtml1/DTD/xhtml1-strict.dtd\">");
-
-            out.println("<html xmlns=\"http://www.w3.org/1999/xhtml\">");
-
-            out.println("<head>");
-            out.println("<meta http-equiv=\"Content-Type\" content=\"text/html; charset=ISO-8859-1\" />");
-            out.println("<title>"+ config.getDocumentTitle() +"</title>");
-            out.println("<link rel='stylesheet' type='text/css' href=' " + config.getStyleSheet() + "'/>");
-            out.println("</head>");
-
-            out.println("<body>");
-
-            out.println("<div id=\"wrapper\">");
-            out.println("<div id=\"container\">");
-
-            out.println("<h1>"+ config.getDocumentTitle() +"</h1>");
-            out.println("<hr />");
-
-            for (ClassDescriptor classDescriptor : classDescriptors) {
-                out.println("<div id='" + classDescriptor.getName().replace(" ", "_") + "'>");
-                out.println("<h3>" + classDescriptor.getName() + "</h3>" );
-                out.print("<div class=\"bean_description\">" + classDescriptor.getDescription() + "</div>");
-
-                for (Endpoint endpoint: classDescriptor.getEndpoints()) {
-                    out.println("<table class=\"endpoint\">");
-                    out.println("<colgroup>");
-                    out.println("<col style=\"width: 10%;\" />");
-                    out.println("<col style=\"width: 90%;\" />");
-                    out.println("</colgroup>");
-                    out.println("<tr>");
-                    out.println("<th>Method</th>");
-                    out.println("<th>Path</th>");
-                    out.println("</tr>");
-                    out.println("<tr>");
-                    out.println("<td class=\"field_format\">" + endpoint.getHttpMethod() + "</td>");
-                    out.println("<td class=\"field_format\">" + endpoint.getPath() + "</td>");
-                    out.println("</tr>");
-                    out.println("<tr>");
-                    out.println("<th colspan=\"2\">REST Point Information</th>");
-                    out.println("</tr>");
-                    out.println("<tr>");
-                    out.println("<td colspan=\"2\">");
-
-                    if (!isEmpty(endpoint.getPathVars())) {
-
-                        out.println("<div class=\"info_title\">Path Variables</div>");
-                        out.println("<table width=\"100%\" class=\"list\">");
-                        for (PathVar pathVar : endpoint.getPathVars()) {
-                            out.println("<tr>");
-                            out.println("<td class=\"code_format\">" + pathVar.getName() + "</td>");
-                            out.println("<td class=\"descr_format\">" + pathVar.getDescription() + "</td>");
-                            out.println("</tr>");
-                        }
-                        out.println("</table>");
-                    }
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while writing the html pages");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IOException(message, e.getCause());
+        }
+    }
 
-                    if (!isEmpty(endpoint.getQueryParams())) {
-
-                        out.println("<div class=\"info_title\">Query Parameters</div>");
-                        out.println("<table width=\"100%\" class=\"list\">");
-                        for (QueryParam queryParam : endpoint.getQueryParams()) {
-                            out.println("<tr>");
-                            out.println("<td class=\"code_format\">" + queryParam.getName() + (queryParam.isRequired() ? " (required)" : "") + "</td>");
-                            out.println("<td class=\"descr_format\">" + queryParam.getDescription() + "</td>");
-                            out.println("</tr>");
-                        }
-                        out.println("</table>");
-                    }
+    /**
+     * Writes the page header when opened, then the section of each class as it is accepted.
+     */
+    private static class SinglePageSink implements DescriptorSink {
 
-                    if (endpoint.getRequestBody() != null &&
-                            !isEmpty(endpoint.getRequestBody().getDescription())) {
-                        out.println("<div class=\"info_title\">Request Body</div>");
-                        out.println("<table width=\"100%\" class=\"list\">");
-                        out.println("<tr>");
-                        out.println("<td class=\"code_format\">" + endpoint.getRequestBody().getName() + "</td>");
-                        out.println("<td class=\"descr_format\">" + endpoint.getRequestBody().getDescription() + "</td>");
-                        out.println("</tr>");
-                        out.println("</table>");
-                    }
+        private final HtmlOutput out;
 
-                    if (!isEmpty(endpoint.getConsumes())) {
-                        out.println("<div class=\"info_title\">Consumes</div>");
-                        out.println("<table width=\"100%\" class=\"list\">");
-                        for (String acceptType : endpoint.getConsumes()) {
-                            out.println("<tr>");
-                            out.println("<td class=\"code_format\">" + acceptType + "</td>");
-                            out.println("</tr>");
-                        }
-                        out.println("</table>");
-                    }
+        SinglePageSink(Configuration config, RunMetrics metrics) throws IOException {
+            out = openPage(INDEX_PAGE, metrics);
 
-                    if (!isEmpty(endpoint.getProduces())) {
-                        out.println("<div class=\"info_title\">Produces</div>");
-                        out.println("<table width=\"100%\" class=\"list\">");
-                        for (String outputType : endpoint.getProduces()) {
-                            out.println("<tr>");
-                            out.println("<td class=\"code_format\">" + outputType + "</td>");
-                            out.println("</tr>");
-                        }
-                        out.println("</table>");
-                    }
+            writePageStart(out, config, config.getDocumentTitle());
+            out.writeEscaped(config.getDocumentTitle());
+            out.write(HEADER_END);
+        }
+
+        @Override
+        @SuppressWarnings("try")
+        public void accept(ClassDescriptor classDescriptor) throws IOException {
+            try (Events.Span span = Events.fileWrite(OUTPUT_OPTION_NAME, INDEX_PAGE, classDescriptor.getName(),
+                    classDescriptor.getEndpoints().size())) {
+                writeClass(out, classDescriptor);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                out.write(PAGE_END);
+            } finally {
+                out.close();
+            }
+        }
+    }
 
-                    out.println("<div class=\"info_title\">Description</div>");
-                    out.println("<div class=\"info_text\">" + endpoint.getDescription() + "</div>");
-                    out.println("</td>");
-                    out.println("</tr>");
-                    out.println("</table>");
+    /**
+     * Same page as {@link SinglePageSink}, but the section of each class is rendered on a pool into a
+     * {@link SpillBuffer}, in memory unless the section is large.  The sections are appended to the page in the
+     * order the classes were accepted, as soon as all the previous ones are done.
+     */
+    private static class FragmentSink implements DescriptorSink {
+
+        private static final int SECTION_SIZE = 16 * 1024;
+        private static final int SPILL_THRESHOLD = 1024 * 1024;
+        private static final int SECTION_BUFFER_SIZE = 8 * 1024;
+
+        private final HtmlOutput out;
+        private final RunMetrics metrics;
+        private final ExecutorService pool;
+        private final Deque<Fragment> fragments = new ArrayDeque<>();
+
+        FragmentSink(Configuration config, RunMetrics metrics) throws IOException {
+            out = openPage(INDEX_PAGE, metrics);
+            this.metrics = metrics;
+            pool = Executors.newFixedThreadPool(config.getThreads());
+
+            writePageStart(out, config, config.getDocumentTitle());
+            out.writeEscaped(config.getDocumentTitle());
+            out.write(HEADER_END);
+        }
 
+        @Override
+        @SuppressWarnings("try")
+        public void accept(ClassDescriptor classDescriptor) throws IOException {
+            Fragment fragment = new Fragment(new SpillBuffer(SECTION_SIZE, SPILL_THRESHOLD));
+            fragments.add(fragment);
+            fragment.future = pool.submit(() -> {
+                try (RunMetrics.Timer timer = metrics.writer(OUTPUT_OPTION_NAME);
+                     Events.Span span = Events.fileWrite(OUTPUT_OPTION_NAME, INDEX_PAGE, classDescriptor.getName(),
+                        classDescriptor.getEndpoints().size());
+                     HtmlOutput fragmentOut = new HtmlOutput(fragment.section, SECTION_BUFFER_SIZE)) {
+                    writeClass(fragmentOut, classDescriptor);
                 }
+                return null;
+            });
 
-                out.println("</div>");
-                out.println("<hr />");
+            //Appends the sections already rendered, without waiting for the others.
+            while (!fragments.isEmpty() && fragments.peek().future.isDone()) {
+                append(fragments.poll());
             }
+        }
 
-            out.println("</div>");
-            out.println("</div>");
-            out.println("</body>");
-            out.println("</html>");
+        private void append(Fragment fragment) throws IOException {
+            try {
+                await(fragment.future, "Unable to write the html page");
+                fragment.section.appendTo(out);
+            } finally {
+                fragment.section.delete();
+            }
+        }
 
-        } finally {
-            close(out);
+        @Override
+        public void close() throws IOException {
+            try {
+                while (!fragments.isEmpty()) {
+                    append(fragments.poll());
+                }
+                out.write(PAGE_END);
+            } finally {
+                pool.shutdownNow();
+                for (Fragment fragment : fragments) {
+                    fragment.section.delete();
+                }
+                out.close();
+            }
         }
     }
 
+    /**
+     * The section of a class, rendered into a buffer.
+     */
+    private static class Fragment {
+        private final SpillBuffer section;
+        private Future<?> future;
+
+        Fragment(SpillBuffer section) {
+            this.section = section;
+        }
+    }
+
+    /**
+     * Writes each class to its own page, on a pool when several threads are configured, then an index page
+     * listing the classes once every page is written.  The file names are chosen as the classes are accepted,
+     * so they do not depend on the order in which the pages are rendered.
+     */
+    private static class ShardedSink implements DescriptorSink {
+
+        private final Configuration config;
+        private final RunMetrics metrics;
+        private final ExecutorService pool;
+        private final List<Page> pages = new ArrayList<>();
+        private final Set<String> fileNames = new HashSet<>();
+
+        ShardedSink(Configuration config, RunMetrics metrics) {
+            this.config = config;
+            this.metrics = metrics;
+            this.pool = config.getThreads() > 1 ? Executors.newFixedThreadPool(config.getThreads()) : null;
+            fileNames.add(INDEX_PAGE);
+        }
+
+        @Override
+        @SuppressWarnings("try")
+        public void accept(ClassDescriptor classDescriptor) throws IOException {
+            Page page = new Page(classDescriptor.getName(), fileName(classDescriptor.getName()),
+                    classDescriptor.getEndpoints().size());
+            pages.add(page);
+
+            if (pool == null) {
+                writePage(page.fileName, classDescriptor);
+            } else {
+                page.future = pool.submit(() -> {
+                    try (RunMetrics.Timer timer = metrics.writer(OUTPUT_OPTION_NAME)) {
+                        writePage(page.fileName, classDescriptor);
+                    }
+                    return null;
+                });
+            }
+        }
+
+        @SuppressWarnings("try")
+        private void writePage(String fileName, ClassDescriptor classDescriptor) throws IOException {
+            try (Events.Span span = Events.fileWrite(OUTPUT_OPTION_NAME, fileName, classDescriptor.getName(),
+                    classDescriptor.getEndpoints().size());
+                 HtmlOutput out = openPage(fileName, metrics)) {
+                writePageStart(out, config, config.getDocumentTitle() + " - " + classDescriptor.getName());
+                out.writeEscaped(config.getDocumentTitle());
+                out.write(HEADER_END);
+                out.write(INDEX_LINK);
+                writeClass(out, classDescriptor);
+                out.write(PAGE_END);
+            }
+        }
+
+        /**
+         * @param className
+         * @return a file name derived from the class name, which no other page of this run uses.  Names are
+         * compared ignoring case, for the file systems which do.
+         */
+        private String fileName(String className) {
+            StringBuilder base = new StringBuilder();
+            if (className != null) {
+                for (int i = 0; i < className.length(); i++) {
+                    char c = className.charAt(i);
+                    base.append((c < 0x80 && Character.isLetterOrDigit(c)) || c == '-' || c == '.' ? c : '_');
+                }
+            }
+            if (base.length() == 0) {
+                base.append("class");
+            }
+
+            String fileName = base + ".html";
+            for (int i = 2; !fileNames.add(fileName.toLowerCase(Locale.ROOT)); i++) {
+                fileName = base + "-" + i + ".html";
+            }
+            return fileName;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                for (Page page : pages) {
+                    if (page.future != null) {
+                        await(page.future, "Unable to write the class pages");
+                    }
+                }
+            } finally {
+                if (pool != null) {
+                    pool.shutdownNow();
+                }
+            }
+            writeIndex();
+        }
+
+        private void writeIndex() throws IOException {
+            int endpoints = 0;
+            try (Events.Span span = Events.fileWrite(OUTPUT_OPTION_NAME, INDEX_PAGE, null, 0);
+                 HtmlOutput out = openPage(INDEX_PAGE, metrics)) {
+                writePageStart(out, config, config.getDocumentTitle());
+                out.writeEscaped(config.getDocumentTitle());
+                out.write(HEADER_END);
+
+                out.write(INDEX_START);
+                for (Page page : pages) {
+                    out.write(INDEX_ROW_START);
+                    out.writeEscaped(page.fileName);
+                    out.write(INDEX_ROW_NAME);
+                    out.writeEscaped(page.className);
+                    out.write(INDEX_ROW_COUNT);
+                    out.writeEscaped(Integer.toString(page.endpoints));
+                    out.write(ROW_END);
+                    endpoints += page.endpoints;
+                }
+                out.write(INDEX_END);
+                out.writeEscaped(Integer.toString(endpoints));
+                out.write(INDEX_TOTAL_CLASSES);
+                out.writeEscaped(Integer.toString(pages.size()));
+                out.write(INDEX_TOTAL_END);
+
+                out.write(PAGE_END);
+                span.setEndpoints(endpoints);
+            }
+        }
+
+    }
 
+    /**
+     * A class written to its own page, with what the index needs to know about it.
+     */
+    private static class Page {
+        private final String className;
+        private final String fileName;
+        private final int endpoints;
+        private Future<?> future;
+
+        Page(String className, String fileName, int endpoints) {
+            this.className = className;
+            this.fileName = fileName;
+            this.endpoints = endpoints;
+        }
+    }
 
 }
@@ -0,0 +1,128 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.writer.simple;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Channel keeping what is written in memory, until it grows over a threshold and is moved to a temporary file.
+ * Most sections of the page are a few kilobytes, they never touch the disk.  Once deleted the channel refuses
+ * to write, so a task still rendering can not leave a temporary file behind.
+ */
+class SpillBuffer implements WritableByteChannel {
+
+    private final int threshold;
+    private byte[] bytes;
+    private int count;
+    private Path file;
+    private FileChannel fileChannel;
+    private boolean open = true;
+
+    /**
+     * @param initialSize of the memory buffer.
+     * @param threshold number of bytes above which the content is moved to a temporary file.
+     */
+    SpillBuffer(int initialSize, int threshold) {
+        this.bytes = new byte[initialSize];
+        this.threshold = threshold;
+    }
+
+    @Override
+    public synchronized int write(ByteBuffer source) throws IOException {
+        if (!open) {
+            throw new ClosedChannelException();
+        }
+
+        int length = source.remaining();
+        if (file == null && count + length > threshold) {
+            spill();
+        }
+        if (file != null) {
+            while (source.hasRemaining()) {
+                fileChannel.write(source);
+            }
+            return length;
+        }
+
+        if (count + length > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, count + length));
+        }
+        source.get(bytes, count, length);
+        count += length;
+        return length;
+    }
+
+    private void spill() throws IOException {
+        file = Files.createTempFile("restdoclet-", ".html");
+        fileChannel = FileChannel.open(file, WRITE);
+        ByteBuffer content = ByteBuffer.wrap(bytes, 0, count);
+        while (content.hasRemaining()) {
+            fileChannel.write(content);
+        }
+        bytes = null;
+    }
+
+    /**
+     * Appends the content to the output, once the channel is closed.
+     * @param out
+     * @throws IOException
+     */
+    void appendTo(HtmlOutput out) throws IOException {
+        if (file == null) {
+            out.write(ByteBuffer.wrap(bytes, 0, count));
+            return;
+        }
+        try (FileChannel source = FileChannel.open(file, READ)) {
+            out.transferFrom(source);
+        }
+    }
+
+    /**
+     * Deletes the temporary file, if the content was moved to one.
+     * @throws IOException
+     */
+    synchronized void delete() throws IOException {
+        close();
+        if (file != null) {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Override
+    public synchronized boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (open) {
+            open = false;
+            if (fileChannel != null) {
+                fileChannel.close();
+            }
+        }
+    }
+}
@@ -17,21 +17,43 @@ package org.calrissian.restdoclet.writer.swagger;
 
 
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import org.calrissian.restdoclet.Configuration;
+import org.calrissian.restdoclet.metrics.Events;
+import org.calrissian.restdoclet.metrics.RunMetrics;
 import org.calrissian.restdoclet.model.*;
+import org.calrissian.restdoclet.writer.DescriptorSink;
 import org.calrissian.restdoclet.writer.Writer;
 import org.calrissian.restdoclet.writer.swagger.model.*;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.AbstractCollection;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
 import static java.util.Map.Entry;
 import static org.calrissian.restdoclet.util.CommonUtils.*;
 import static org.calrissian.restdoclet.writer.swagger.TypeUtils.*;
@@ -42,95 +64,261 @@ public class SwaggerWriter implements Writer {
     private static final String SWAGGER_DEFAULT_HTML = "/swagger/index.html";
     private static final String SWAGGER_CALLABLE_HTML = "/swagger/index-callable.html";
     private static final String SWAGGER_UI_ARTIFACT = "/swagger/swagger-ui.zip";
+    private static final String SWAGGER_UI_MARKER = ".swagger-ui.sha256";
     private static final String SWAGGER_VERSION = "1.2";
     private static final String RESOURCE_DOC = "./api-docs";
     private static final String API_DOC_DIR = "apis";
     private static ObjectMapper mapper = new ObjectMapper()
             .configure(SerializationFeature.WRITE_NULL_MAP_VALUES, false)
             .setSerializationInclusion(JsonInclude.Include.NON_NULL);
+    //Immutable, shared by the threads writing the api files.
+    private static final ObjectWriter writer = mapper.writerWithDefaultPrettyPrinter();
 
     @Override
-    public void write(Collection<ClassDescriptor> classDescriptors, Configuration config) throws IOException {
+    public DescriptorSink open(Configuration config) throws IOException {
+        return open(config, RunMetrics.disabled());
+    }
+
+    @Override
+    public DescriptorSink open(Configuration config, RunMetrics metrics) throws IOException {
+        copyIndex(config, metrics);
+        copySwagger(metrics);
+        return new SwaggerSink(config, metrics);
+    }
 
-        Map<String, Collection<Endpoint>> resources = new LinkedHashMap<>();
-        for (ClassDescriptor classDescriptor : classDescriptors) {
+    /**
+     * Adds the operations to the routes and groups the routes by resource as the classes are accepted.  A
+     * resource can be shared by several classes, so the api files are written once every class has been accepted.
+     */
+    private static class SwaggerSink implements DescriptorSink {
+
+        private final Configuration config;
+        private final RunMetrics metrics;
+        private final RouteTrie<Operation> routes = new RouteTrie<>();
+        private final Map<String, Set<RouteTrie.Node<Operation>>> resources = new LinkedHashMap<>();
+        //Models used directly by the operations of each resource, by qualified name.
+        private final Map<String, Map<String, TypeRef>> resourceModels = new HashMap<>();
+        //Names of the classes contributing to each resource.
+        private final Map<String, Set<String>> resourceClasses = new HashMap<>();
+
+        SwaggerSink(Configuration config, RunMetrics metrics) {
+            this.config = config;
+            this.metrics = metrics;
+        }
+
+        @Override
+        public void accept(ClassDescriptor classDescriptor) {
             for (Endpoint endpoint : classDescriptor.getEndpoints()) {
                 String resourceName = getResource(classDescriptor.getContextPath(), endpoint);
-                if (resources.containsKey(resourceName)) {
-                    resources.get(resourceName).add(endpoint);
-                } else {
-                    Collection<Endpoint> tmp = new ArrayList<>();
-                    tmp.add(endpoint);
-                    resources.put(resourceName, tmp);
-                }
+                resources.computeIfAbsent(resourceName, k -> new LinkedHashSet<>())
+                        .add(routes.add(endpoint.getPath(), getOperation(endpoint)));
+                addModels(endpoint, resourceModels.computeIfAbsent(resourceName, k -> new LinkedHashMap<>()));
+                resourceClasses.computeIfAbsent(resourceName, k -> new LinkedHashSet<>()).add(classDescriptor.getName());
             }
         }
 
-        writeResource(resources, config);
-        copyIndex(config);
-        copySwagger();
+        @Override
+        public void close() throws IOException {
+            writeResource(resources, resourceModels, resourceClasses, config, metrics);
+        }
     }
 
+    private static void addModels(Endpoint endpoint, Map<String, TypeRef> models) {
+        for (PathVar pathVar : endpoint.getPathVars())
+            TypeUtils.addModels(pathVar.getType(), models);
 
+        for (QueryParam queryParam : endpoint.getQueryParams())
+            TypeUtils.addModels(queryParam.getType(), models);
 
-    private static void writeResource(Map<String, Collection<Endpoint>> resources, Configuration config) throws IOException {
+        if (endpoint.getRequestBody() != null)
+            TypeUtils.addModels(endpoint.getRequestBody().getType(), models);
+
+        TypeUtils.addModels(endpoint.getType(), models);
+    }
+
+    @SuppressWarnings("try")
+    private static void writeResource(Map<String, Set<RouteTrie.Node<Operation>>> resources,
+                                      Map<String, Map<String, TypeRef>> resourceModels,
+                                      Map<String, Set<String>> resourceClasses, Configuration config,
+                                      RunMetrics metrics) throws IOException {
 
         ResourceListing resourceListing = new ResourceListing(SWAGGER_VERSION, config.getApiVersion(), config.getDocumentTitle());
-        for (Entry<String, Collection<Endpoint>> entry : resources.entrySet()) {
-            resourceListing.addApi("/../" + API_DOC_DIR + entry.getKey(), "");
-            writeApi(entry.getKey(), entry.getValue(), config);
+        ApiFiles apiFiles = new ApiFiles(config, metrics);
+        int endpoints = 0;
+        try {
+            for (Entry<String, Set<RouteTrie.Node<Operation>>> entry : resources.entrySet()) {
+                resourceListing.addApi("/../" + API_DOC_DIR + entry.getKey(), "");
+                String classNames = String.join(", ", resourceClasses.get(entry.getKey()));
+                endpoints += apiFiles.write(entry.getKey(), entry.getValue(), resourceModels.get(entry.getKey()), classNames);
+            }
+            apiFiles.await();
+        } finally {
+            apiFiles.shutdown();
         }
 
-        mapper.writerWithDefaultPrettyPrinter().writeValue(new FileOutputStream(RESOURCE_DOC), resourceListing);
-
+        try (Events.Span span = Events.fileWrite(OUTPUT_OPTION_NAME, RESOURCE_DOC, null, endpoints)) {
+            writeJson(new File(RESOURCE_DOC), resourceListing, metrics);
+        }
     }
 
-    private static void writeApi(String resource, Collection<Endpoint> endpoints, Configuration config) throws IOException {
-        Map<String, Collection<Endpoint>> pathGroups = groupPaths(endpoints);
+    /**
+     * Writes the api file of each resource, on a pool when several threads are configured.  The directories
+     * are created once, shared by all the files they contain, and each model is described once, shared by all
+     * the files using it.
+     */
+    private static class ApiFiles {
+
+        private final Configuration config;
+        private final RunMetrics metrics;
+        private final ExecutorService pool;
+        private final List<Future<?>> futures = new ArrayList<>();
+        private final Map<File, Boolean> directories = new ConcurrentHashMap<>();
+        private final Map<String, Model> models = new ConcurrentHashMap<>();
+
+        ApiFiles(Configuration config, RunMetrics metrics) {
+            this.config = config;
+            this.metrics = metrics;
+            this.pool = config.getThreads() > 1 ? Executors.newFixedThreadPool(config.getThreads()) : null;
+        }
+
+        /**
+         * @return the number of operations of the resource.
+         */
+        @SuppressWarnings("try")
+        int write(String resource, Collection<RouteTrie.Node<Operation>> routes, Map<String, TypeRef> usedModels,
+                  String classNames) throws IOException {
+            int operations = 0;
+            for (RouteTrie.Node<Operation> route : routes) {
+                operations += route.getValues().size();
+            }
 
-        File apiFile = new File("./" + API_DOC_DIR , resource);
-        apiFile.getParentFile().mkdirs();
+            if (pool == null) {
+                writeApi(resource, routes, usedModels, classNames, operations);
+            } else {
+                int endpoints = operations;
+                futures.add(pool.submit(() -> {
+                    try (RunMetrics.Timer timer = metrics.writer(OUTPUT_OPTION_NAME)) {
+                        writeApi(resource, routes, usedModels, classNames, endpoints);
+                    }
+                    return null;
+                }));
+            }
+            return operations;
+        }
 
-        Collection<Api> apis = new ArrayList<Api>(pathGroups.size());
-        for (Entry<String, Collection<Endpoint>> entry : pathGroups.entrySet())
-            apis.add(new Api(entry.getKey(), "", getOperations(entry.getValue())));
+        @SuppressWarnings("try")
+        private void writeApi(String resource, Collection<RouteTrie.Node<Operation>> routes, Map<String, TypeRef> usedModels,
+                              String classNames, int endpoints) throws IOException {
+            try (Events.Span span = Events.fileWrite(OUTPUT_OPTION_NAME, API_DOC_DIR + resource, classNames, endpoints)) {
+                writeApi(resource, routes, usedModels);
+            }
+        }
 
+        private void writeApi(String resource, Collection<RouteTrie.Node<Operation>> routes, Map<String, TypeRef> usedModels) throws IOException {
 
-        mapper.writerWithDefaultPrettyPrinter().writeValue(new FileOutputStream(apiFile),
-                new ApiListing(SWAGGER_VERSION, config.getPath(), resource, config.getApiVersion(), apis)
-        );
-    }
+            File apiFile = new File("./" + API_DOC_DIR , resource);
+            File directory = apiFile.getParentFile();
+            //Blocks the other files of the directory until it is created.
+            if (!directories.computeIfAbsent(directory, d -> d.mkdirs() || d.isDirectory())) {
+                throw new IOException("Unable to create directory: " + directory);
+            }
 
-    private static Collection<Operation> getOperations(Collection<Endpoint> endpoints) {
-        Collection<Operation> operations = new ArrayList<>(endpoints.size());
+            Map<String, Model> apiModels = new LinkedHashMap<>();
+            for (TypeRef model : reachableModels(usedModels.values()).values()) {
+                apiModels.put(model.getQualifiedName(), models.computeIfAbsent(model.getQualifiedName(), k -> model(model)));
+            }
+
+            writeJson(apiFile, new ApiListing(SWAGGER_VERSION, config.getPath(), resource, config.getApiVersion(),
+                    apis(routes), apiModels), metrics);
+        }
 
-        for (Endpoint endpoint : endpoints) {
-            Collection<Parameter> params = new ArrayList<>();
+        void await() throws IOException {
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while writing the api files");
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof IOException) {
+                        throw (IOException) e.getCause();
+                    }
+                    if (e.getCause() instanceof RuntimeException) {
+                        throw (RuntimeException) e.getCause();
+                    }
+                    throw new IOException("Unable to write the api files", e.getCause());
+                }
+            }
+        }
+
+        void shutdown() {
+            if (pool != null) {
+                pool.shutdownNow();
+            }
+        }
+    }
 
-            for (PathVar pathVar : endpoint.getPathVars())
-                params.add(getParameter(pathVar));
+    /**
+     * A view of the apis of a resource, created while the listing is serialized.
+     */
+    private static Collection<Api> apis(Collection<RouteTrie.Node<Operation>> routes) {
+        return new AbstractCollection<Api>() {
+            @Override
+            public Iterator<Api> iterator() {
+                Iterator<RouteTrie.Node<Operation>> nodes = routes.iterator();
+                return new Iterator<Api>() {
+                    @Override
+                    public boolean hasNext() {
+                        return nodes.hasNext();
+                    }
 
-            for (QueryParam queryParam : endpoint.getQueryParams())
-                params.add(getParameter(queryParam));
+                    @Override
+                    public Api next() {
+                        RouteTrie.Node<Operation> node = nodes.next();
+                        return new Api(node.getPath(), "", node.getValues());
+                    }
+                };
+            }
 
-            if (endpoint.getRequestBody() != null)
-                params.add(getParameter(endpoint.getRequestBody()));
+            @Override
+            public int size() {
+                return routes.size();
+            }
+        };
+    }
 
-            operations.add(
-                    new Operation(
-                            endpoint.getHttpMethod(),
-                            "nickname",
-                            endpoint.getDescription(),
-                            endpoint.getShortDescription(),
-                            dataType(endpoint.getType()),
-                            endpoint.getProduces(),
-                            endpoint.getConsumes(),
-                            params
-                    )
-            );
+    /**
+     * Streams a value to a file through the shared writer.
+     */
+    private static void writeJson(File file, Object value, RunMetrics metrics) throws IOException {
+        try (OutputStream out = metrics.countBytes(Files.newOutputStream(file.toPath()));
+             JsonGenerator generator = writer.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            writer.writeValue(generator, value);
         }
+    }
 
-        return operations;
+    private static Operation getOperation(Endpoint endpoint) {
+        Collection<Parameter> params = new ArrayList<>();
+
+        for (PathVar pathVar : endpoint.getPathVars())
+            params.add(getParameter(pathVar));
+
+        for (QueryParam queryParam : endpoint.getQueryParams())
+            params.add(getParameter(queryParam));
+
+        if (endpoint.getRequestBody() != null)
+            params.add(getParameter(endpoint.getRequestBody()));
+
+        return new Operation(
+                endpoint.getHttpMethod(),
+                "nickname",
+                endpoint.getDescription(),
+                endpoint.getShortDescription(),
+                dataType(endpoint.getType()),
+                endpoint.getProduces(),
+                endpoint.getConsumes(),
+                params
+        );
     }
 
     private static Parameter getParameter(PathVar pathVar) {
@@ -175,21 +363,6 @@ public class SwaggerWriter implements Writer {
         );
     }
 
-    private static Map<String, Collection<Endpoint>> groupPaths (Collection<Endpoint> endpoints) {
-        Map<String, Collection<Endpoint>> paths = new LinkedHashMap<>();
-        for (Endpoint endpoint : endpoints) {
-            if (paths.containsKey(endpoint.getPath())) {
-                paths.get(endpoint.getPath()).add(endpoint);
-            } else {
-                Collection<Endpoint> tmp = new ArrayList<>();
-                tmp.add(endpoint);
-                paths.put(endpoint.getPath(), tmp);
-            }
-        }
-
-        return paths;
-    }
-
     /**
      * Will get the first path segment that follows the context path.  Will return the partial path as the resource id.
      */
@@ -198,22 +371,18 @@ public class SwaggerWriter implements Writer {
             return "/";
 
         //Shouldn't need to do this, but being safe.
-        String tmp = fixPath(endpoint.getPath());
+        String path = fixPath(endpoint.getPath());
 
         //First normalize the path then, if not part of the path then simply ignore it.
         contextPath = fixPath(contextPath);
-        contextPath = (!tmp.startsWith(contextPath) ? "" : contextPath);
+        int start = (path.startsWith(contextPath) && !"/".equals(contextPath) ? contextPath.length() : 0);
 
-        //remove the context path for evaluation
-        tmp = tmp.substring(contextPath.length());
-
-        if (tmp.indexOf("/", 1) > 0)
-            tmp = tmp.substring(0, tmp.indexOf("/", 1));
-
-        return contextPath + tmp;
+        //keep the first segment that follows the context path
+        int end = path.indexOf('/', start + 1);
+        return (end < 0 ? path : fixPath(path.substring(0, end)));
     }
 
-    private static void copyIndex(Configuration config) throws IOException {
+    private static void copyIndex(Configuration config, RunMetrics metrics) throws IOException {
         InputStream in = null;
         OutputStream out = null;
         try {
@@ -224,7 +393,7 @@ public class SwaggerWriter implements Writer {
                 in = SwaggerWriter.class.getResourceAsStream(SWAGGER_DEFAULT_HTML);
             }
 
-            out = new FileOutputStream(new File(".", "index.html"));
+            out = metrics.countBytes(new FileOutputStream(new File(".", "index.html")));
             copy(in, out);
 
         } finally {
@@ -232,24 +401,74 @@ public class SwaggerWriter implements Writer {
         }
     }
 
-    private static void copySwagger() throws IOException {
-        ZipInputStream swaggerZip = null;
-        FileOutputStream out = null;
-        try{
-            swaggerZip = new ZipInputStream(SwaggerWriter.class.getResourceAsStream(SWAGGER_UI_ARTIFACT));
+    /**
+     * Extracts the swagger ui in the working directory.  The digest of the extracted archive is kept in a marker
+     * file, followed by the size and name of every extracted file.  The extraction is skipped when the marker
+     * shows the same archive was already extracted there and its files are all still in place.
+     */
+    private static void copySwagger(RunMetrics metrics) throws IOException {
+        byte[] archive;
+        try (InputStream in = SwaggerWriter.class.getResourceAsStream(SWAGGER_UI_ARTIFACT)) {
+            archive = in.readAllBytes();
+        }
+
+        String digest = sha256(archive);
+        Path marker = Paths.get(".", SWAGGER_UI_MARKER);
+        if (isExtracted(marker, digest)) {
+            return;
+        }
+
+        List<String> lines = new ArrayList<>();
+        lines.add(digest);
+        try (ZipInputStream swaggerZip = new ZipInputStream(new ByteArrayInputStream(archive))) {
             ZipEntry entry;
             while ((entry = swaggerZip.getNextEntry()) != null) {
-                final File swaggerFile = new File(".", entry.getName());
+                final Path swaggerFile = Paths.get(".", entry.getName());
                 if (entry.isDirectory()) {
-                    if (!swaggerFile.isDirectory() && !swaggerFile.mkdirs()) {
-                        throw new RuntimeException("Unable to create directory: " + swaggerFile);
-                    }
+                    Files.createDirectories(swaggerFile);
                 } else {
-                    copy(swaggerZip, new FileOutputStream(swaggerFile));
+                    Files.createDirectories(swaggerFile.toAbsolutePath().getParent());
+                    long size = Files.copy(swaggerZip, swaggerFile, REPLACE_EXISTING);
+                    lines.add(size + " " + entry.getName());
+                    metrics.count(RunMetrics.BYTES_WRITTEN, size);
                 }
             }
-        } finally {
-            close(swaggerZip, out);
         }
+
+        //Written last, an interrupted extraction is done again by the next run.
+        Files.write(marker, lines, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @param marker
+     * @param digest of the archive to extract.
+     * @return true if the marker was written for the same archive, and each file it lists still has its size.
+     * @throws IOException
+     */
+    private static boolean isExtracted(Path marker, String digest) throws IOException {
+        if (!Files.isRegularFile(marker)) {
+            return false;
+        }
+
+        List<String> lines = Files.readAllLines(marker, StandardCharsets.UTF_8);
+        //The digest line is followed by at least one file entry.
+        if (lines.size() < 2 || !digest.equals(lines.get(0))) {
+            return false;
+        }
+        for (String line : lines.subList(1, lines.size())) {
+            int separator = line.indexOf(' ');
+            if (separator < 0) {
+                return false;
+            }
+            Path file = Paths.get(".", line.substring(separator + 1));
+            try {
+                if (!Files.isRegularFile(file) || Files.size(file) != Long.parseLong(line.substring(0, separator))) {
+                    return false;
+                }
+            } catch (NumberFormatException e) {
+                return false;
+            }
+        }
+        return true;
     }
 }
@@ -16,35 +16,46 @@
 package org.calrissian.restdoclet.writer.swagger;
 
 
+import java.util.ArrayDeque;
 import java.util.Collection;
 import java.util.Date;
-import java.util.Set;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import static java.util.Collections.emptyList;
-import java.util.List;
-import java.util.stream.Collectors;
-import javax.lang.model.element.ElementKind;
-import javax.lang.model.element.TypeElement;
-import javax.lang.model.type.DeclaredType;
-import javax.lang.model.type.NoType;
-import javax.lang.model.type.TypeKind;
-import javax.lang.model.type.TypeMirror;
-import static org.calrissian.restdoclet.util.CommonUtils.*;
-
-class TypeUtils {
+import org.calrissian.restdoclet.model.TypeRef;
+import org.calrissian.restdoclet.writer.swagger.model.Model;
+import org.calrissian.restdoclet.writer.swagger.model.ModelProperty;
+
+public class TypeUtils {
+
+    //Swagger type of the JDK classes, by qualified name.
+    private static final Map<String, String> BASIC_TYPES = new HashMap<>();
+    static {
+        BASIC_TYPES.put(String.class.getName(), "string");
+        BASIC_TYPES.put(Boolean.class.getName(), "boolean");
+        BASIC_TYPES.put(Integer.class.getName(), "int");
+        BASIC_TYPES.put(Long.class.getName(), "long");
+        BASIC_TYPES.put(Float.class.getName(), "float");
+        BASIC_TYPES.put(Double.class.getName(), "double");
+        BASIC_TYPES.put(Byte.class.getName(), "byte");
+        BASIC_TYPES.put(Date.class.getName(), "Date");
+    }
 
     /**
      * Will return a full data type for Swagger.
      * @param type
      * @return
      */
-    public static String dataType(TypeMirror type) {
+    public static String dataType(TypeRef type) {
         if (type == null)
             return null;
 
         if (isContainer(type)) {
             //treat sets as sets
-            if (isType(asTypeElement(type), Set.class)) {
+            if (type.getKind() == TypeRef.Kind.SET) {
                 return "Set[" + internalContainerType(type) + "]";
             }
             return "List[" + internalContainerType(type) + "]";
@@ -59,22 +70,8 @@ class TypeUtils {
      * @param type
      * @return
      */
-    public static boolean isContainer(TypeMirror type) {
-
-        //first check for arrays
-        if (type.getKind().equals(TypeKind.ARRAY)) {
-            return true;
-        }
-
-        if ((type instanceof NoType) || type.getKind().isPrimitive()) {
-            return false;
-        }
-
-        //treat iterables as lists
-        if (isType(asTypeElement(type), Iterable.class)) {
-            return true;
-        }
-        return false;
+    public static boolean isContainer(TypeRef type) {
+        return type.getKind().isContainer();
     }
 
     /**
@@ -82,19 +79,11 @@ class TypeUtils {
      * @param type
      * @return
      */
-    public static String internalContainerType(TypeMirror type) {
-        //treat arrays first
-        if (type.getKind().equals(TypeKind.ARRAY)) {
-            return basicType(type);
-        }
-
-        DeclaredType pType = (DeclaredType)type;
-        List<? extends TypeMirror> paramTypes = pType.getTypeArguments();
-        if (!isEmpty(paramTypes)) {
-            return basicType(paramTypes.get(0));
+    public static String internalContainerType(TypeRef type) {
+        if (type.getElementType() != null) {
+            return basicType(type.getElementType());
         }
 
-        //TODO look into supporting models.
         return "Object";
     }
 
@@ -103,105 +92,102 @@ class TypeUtils {
      * @param type
      * @return
      */
-    public static String basicType(TypeMirror type) {
+    public static String basicType(TypeRef type) {
         if (type == null)
             return "void";
 
         //next primitives
-        if (type.getKind().isPrimitive()) {
-            return type.toString();
+        if (type.getKind() == TypeRef.Kind.PRIMITIVE) {
+            return type.getQualifiedName();
         }
 
-        String name = type.toString();
-
         //Check the java.lang classes
-        if (name.equals(String.class.getName()))
-            return "string";
-
-        if (name.equals(Boolean.class.getName()))
-            return "boolean";
-
-        if (name.equals(Integer.class.getName()))
-            return "int";
-
-        if (name.equals(Long.class.getName()))
-            return "long";
-
-        if (name.equals(Float.class.getName()))
-            return "float";
-
-        if (name.equals(Double.class.getName()))
-            return "double";
-
-        if (name.equals(Byte.class.getName()))
-            return "byte";
-
-        if (name.equals(Date.class.getName()))
-            return "Date";
+        String basicType = BASIC_TYPES.get(type.getQualifiedName());
+        if (basicType != null)
+            return basicType;
 
         //Process enums as strings.
-        if (!(type instanceof NoType) && asTypeElement(type).getKind().equals(ElementKind.ENUM_CONSTANT)) {
+        if (type.getKind() == TypeRef.Kind.ENUM) {
             return "string";
         }
 
-        //TODO look into supporting models.
+        //Models are described in the api listing, under their qualified name.
+        if (type.isModel()) {
+            return type.getQualifiedName();
+        }
+
         return "object";
     }
 
     /**
-     * This will retrieve all known allowable values from an enum.
      * @param type
-     * @return
+     * @return the description of a model, with the type of each of its properties.
      */
-    public static Collection<String> allowableValues(TypeMirror type) {
-        TypeElement te = asTypeElement(type);
-        if (type == null || te == null) {
-            return emptyList();
+    public static Model model(TypeRef type) {
+        Map<String, ModelProperty> properties = new LinkedHashMap<>();
+        for (Map.Entry<String, TypeRef> property : type.getProperties().entrySet()) {
+            properties.put(property.getKey(), property(property.getValue()));
         }
-
-        if (te.getKind().equals(ElementKind.ENUM_CONSTANT)) {
-            return getEnumValues(te);
-        }
-        return emptyList();
+        return new Model(type.getQualifiedName(), properties);
     }
 
-    public static List<String> getEnumValues(TypeElement enumTypeElement) {
-    return enumTypeElement.getEnclosedElements().stream()
-            .filter(element -> element.getKind().equals(ElementKind.ENUM_CONSTANT))
-            .map(Object::toString)
-            .collect(Collectors.toList());
+    private static ModelProperty property(TypeRef type) {
+        if (type != null && isContainer(type)) {
+            ModelProperty items = (type.getElementType() == null ? new ModelProperty("object", null, null, false, null)
+                    : property(type.getElementType()));
+            return new ModelProperty("array", null, items, type.getKind() == TypeRef.Kind.SET, null);
+        }
+        if (type != null && type.isModel()) {
+            return new ModelProperty(null, type.getQualifiedName(), null, false, null);
+        }
+        return new ModelProperty(basicType(type), null, null, false, allowableValues(type));
     }
 
     /**
-     * Checks the class doc to see if it is a type or subtype of the provided class or object.
-     * @param classDoc
-     * @param targetClazz
-     * @param <T>
-     * @return
+     * Adds the models used by a type, directly or as the elements of a container.
+     * @param type
+     * @param models the models found, by qualified name.
      */
-    private static <T> boolean isType(TypeElement classDoc, Class<T> targetClazz) {
-        if (classDoc == null) {
-            return false;
-        }
-
-        if (classDoc.getQualifiedName().toString().equals(targetClazz.getName())) {
-            return true;
-        }
-
-        TypeMirror superClass = classDoc.getSuperclass();
-        if (superClass != null && !(superClass instanceof NoType)) {
-            if (isType(asTypeElement(superClass), targetClazz)) {
-                return true;
+    public static void addModels(TypeRef type, Map<String, TypeRef> models) {
+        while (type != null) {
+            if (type.isModel()) {
+                models.putIfAbsent(type.getQualifiedName(), type);
             }
+            type = type.getElementType();
         }
+    }
 
-        for (TypeMirror iface : classDoc.getInterfaces()) {
-            if (isType(asTypeElement(iface), targetClazz)) {
-                return true;
+    /**
+     * @param models
+     * @return the models and every model reachable from their properties, by qualified name.
+     */
+    public static Map<String, TypeRef> reachableModels(Collection<TypeRef> models) {
+        Map<String, TypeRef> reachable = new LinkedHashMap<>();
+        Deque<TypeRef> pending = new ArrayDeque<>(models);
+        while (!pending.isEmpty()) {
+            TypeRef model = pending.poll();
+            if (reachable.putIfAbsent(model.getQualifiedName(), model) != null) {
+                continue;
+            }
+            Map<String, TypeRef> used = new LinkedHashMap<>();
+            for (TypeRef property : model.getProperties().values()) {
+                addModels(property, used);
             }
+            pending.addAll(used.values());
         }
+        return reachable;
+    }
 
-        return false;
+    /**
+     * This will retrieve all known allowable values from an enum.
+     * @param type
+     * @return
+     */
+    public static Collection<String> allowableValues(TypeRef type) {
+        if (type == null) {
+            return emptyList();
+        }
+        return type.getEnumConstants();
     }
 
 }
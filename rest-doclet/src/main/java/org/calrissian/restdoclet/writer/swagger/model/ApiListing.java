@@ -16,6 +16,7 @@
 package org.calrissian.restdoclet.writer.swagger.model;
 
 import java.util.Collection;
+import java.util.Map;
 
 import static org.calrissian.restdoclet.util.CommonUtils.isEmpty;
 
@@ -25,13 +26,15 @@ public class ApiListing {
     private final String resourcePath;
     private final String apiVersion;
     private final Collection<Api> apis;
+    private final Map<String, Model> models;
 
-    public ApiListing(String swaggerVersion, String basePath, String resourcePath, String apiVersion, Collection<Api> apis) {
+    public ApiListing(String swaggerVersion, String basePath, String resourcePath, String apiVersion, Collection<Api> apis, Map<String, Model> models) {
         this.swaggerVersion = swaggerVersion;
         this.basePath = basePath;
         this.resourcePath = resourcePath;
         this.apiVersion = apiVersion;
         this.apis = (isEmpty(apis) ? null : apis);
+        this.models = (models == null || models.isEmpty() ? null : models);
     }
 
     public String getSwaggerVersion() {
@@ -53,4 +56,8 @@ public class ApiListing {
     public Collection<Api> getApis() {
         return apis;
     }
+
+    public Map<String, Model> getModels() {
+        return models;
+    }
 }
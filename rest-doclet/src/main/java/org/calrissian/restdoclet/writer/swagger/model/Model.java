@@ -0,0 +1,36 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.writer.swagger.model;
+
+import java.util.Map;
+
+public class Model {
+    private final String id;
+    private final Map<String, ModelProperty> properties;
+
+    public Model(String id, Map<String, ModelProperty> properties) {
+        this.id = id;
+        this.properties = (properties == null || properties.isEmpty() ? null : properties);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Map<String, ModelProperty> getProperties() {
+        return properties;
+    }
+}
@@ -0,0 +1,63 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.writer.swagger.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Collection;
+
+import static org.calrissian.restdoclet.util.CommonUtils.isEmpty;
+
+/**
+ * The type of a model property, or of the items of an array property.  Either a type or a reference to
+ * another model is set.
+ */
+public class ModelProperty {
+
+    private final String type;
+    @JsonProperty("$ref") private final String ref;
+    private final ModelProperty items;
+    private final Boolean uniqueItems;
+    @JsonProperty("enum") private final Collection<String> allowableValues;
+
+    public ModelProperty(String type, String ref, ModelProperty items, boolean uniqueItems, Collection<String> allowableValues) {
+        this.type = type;
+        this.ref = ref;
+        this.items = items;
+        this.uniqueItems = (uniqueItems ? Boolean.TRUE : null);
+        this.allowableValues = (isEmpty(allowableValues) ? null : allowableValues);
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getRef() {
+        return ref;
+    }
+
+    public ModelProperty getItems() {
+        return items;
+    }
+
+    public Boolean getUniqueItems() {
+        return uniqueItems;
+    }
+
+    public Collection<String> getAllowableValues() {
+        return allowableValues;
+    }
+}
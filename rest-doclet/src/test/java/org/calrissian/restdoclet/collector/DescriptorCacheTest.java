@@ -0,0 +1,94 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.collector;
+
+import org.calrissian.restdoclet.model.TypeRef;
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.calrissian.restdoclet.model.TypeRef.Kind.ARRAY;
+import static org.calrissian.restdoclet.model.TypeRef.Kind.ENUM;
+import static org.calrissian.restdoclet.model.TypeRef.Kind.ITERABLE;
+import static org.calrissian.restdoclet.model.TypeRef.Kind.OBJECT;
+import static org.calrissian.restdoclet.model.TypeRef.Kind.PRIMITIVE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DescriptorCacheTest {
+
+    private static TypeRef type(String qualifiedName) {
+        return new TypeRef(qualifiedName, OBJECT, null, null);
+    }
+
+    private static TypeRef list(TypeRef elementType) {
+        return new TypeRef("java.util.List", ITERABLE, elementType, null);
+    }
+
+    private static TypeRef model(String qualifiedName, String property, TypeRef type) {
+        Map<String, TypeRef> properties = new LinkedHashMap<>();
+        properties.put(property, type);
+        return new TypeRef(qualifiedName, OBJECT, null, null, properties);
+    }
+
+    private static String models(TypeRef... types) {
+        StringBuilder content = new StringBuilder();
+        Deque<TypeRef> usedTypes = new ArrayDeque<>(Arrays.asList(types));
+        DescriptorCache.appendModels(content, usedTypes);
+        return content.toString();
+    }
+
+    @Test
+    public void elementTypeOfProperty() {
+        String strings = models(model("dto.Item", "tags", list(type("java.lang.String"))));
+        String integers = models(model("dto.Item", "tags", list(type("java.lang.Integer"))));
+
+        assertNotEquals(strings, integers);
+        assertEquals(strings, models(model("dto.Item", "tags", list(type("java.lang.String")))));
+    }
+
+    @Test
+    public void nestedContainers() {
+        TypeRef matrix = new TypeRef("int[][]", ARRAY, new TypeRef("int[]", ARRAY, new TypeRef("int", PRIMITIVE, null, null), null), null);
+        TypeRef longMatrix = new TypeRef("int[][]", ARRAY, new TypeRef("int[]", ARRAY, new TypeRef("long", PRIMITIVE, null, null), null), null);
+
+        assertNotEquals(models(model("dto.Grid", "cells", matrix)), models(model("dto.Grid", "cells", longMatrix)));
+    }
+
+    @Test
+    public void kindOfProperty() {
+        String array = models(model("dto.Item", "tags", new TypeRef("java.lang.String[]", ARRAY, type("java.lang.String"), null)));
+        String set = models(model("dto.Item", "tags", new TypeRef("java.lang.String[]", ITERABLE, type("java.lang.String"), null)));
+
+        assertNotEquals(array, set);
+    }
+
+    @Test
+    public void modelsAndEnumsOfElements() {
+        TypeRef status = new TypeRef("dto.Status", ENUM, null, Collections.singletonList("ACTIVE"));
+        TypeRef line = model("dto.Line", "status", status);
+        String content = models(model("dto.Order", "lines", list(line)));
+
+        assertTrue(content.contains("\nmodel dto.Line"));
+        assertTrue(content.contains("\nenum dto.Status:ACTIVE"));
+    }
+}
@@ -0,0 +1,60 @@
+/*******************************************************************************
+ * Copyright (C) 2014 The Calrissian Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *******************************************************************************/
+package org.calrissian.restdoclet.model;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class RouteTrieTest {
+
+    private static RouteTrie<String> trie(String... routes) {
+        RouteTrie<String> trie = new RouteTrie<>();
+        for (String route : routes) {
+            trie.add(route, route);
+        }
+        return trie;
+    }
+
+    private static String match(RouteTrie<String> trie, String path) {
+        RouteTrie.Node<String> node = trie.match(path);
+        return (node == null ? null : node.getPath());
+    }
+
+    @Test
+    public void literalBeforeVariable() {
+        RouteTrie<String> trie = trie("/users/{id}", "/users/me", "/users/{id}/orders");
+
+        assertEquals("/users/me", match(trie, "/users/me"));
+        assertEquals("/users/{id}", match(trie, "/users/42"));
+        assertEquals("/users/{id}/orders", match(trie, "/users/me/orders"));
+        assertNull(match(trie, "/users"));
+    }
+
+    @Test
+    public void regexBeforeVariable() {
+        RouteTrie<String> trie = trie("/items/{name}", "/items/{id:[0-9]+}", "/items/{name}/details",
+                "/items/{id:[0-9]+}/history");
+
+        assertEquals("/items/{id:[0-9]+}", match(trie, "/items/42"));
+        assertEquals("/items/{name}", match(trie, "/items/abc"));
+        assertEquals("/items/{id:[0-9]+}/history", match(trie, "/items/42/history"));
+        //The regular expression has no details, the match backtracks to the plain variable.
+        assertEquals("/items/{name}/details", match(trie, "/items/42/details"));
+        assertNull(match(trie, "/items/abc/history"));
+    }
+}